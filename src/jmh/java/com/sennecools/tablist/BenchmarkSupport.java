@@ -0,0 +1,47 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+import com.sennecools.tablist.config.TabListConfig;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.Level;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared benchmark setup: a bootstrapped game, a default config and a synthetic viewer.
+ */
+final class BenchmarkSupport {
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkSupport() {
+    }
+
+    static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    static ConfigSnapshot defaultConfig() {
+        return new ConfigSnapshot("Benchmark Server",
+                TabListConfig.DEFAULT_HEADER.stream().map(TabListTemplate::compile).toList(),
+                TabListConfig.DEFAULT_FOOTER.stream().map(TabListTemplate::compile).toList(),
+                500, 4, "{name} &7#AFK", false, "NONE", true, 300, false, false,
+                TabListConfig.DEFAULT_ADAPTIVE_THRESHOLDS, false);
+    }
+
+    static ViewerSnapshot viewer(int index) {
+        return new ViewerSnapshot(null, new UUID(0L, index), "Player" + index, 20 + index % 200, Level.OVERWORLD,
+                false, new RankCache.RankInfo(0, "Member", null));
+    }
+
+    static List<String> defaultFrames() {
+        return List.of(TabListConfig.DEFAULT_HEADER.get(0), TabListConfig.DEFAULT_FOOTER.get(0),
+                TabListConfig.DEFAULT_FOOTER.get(1));
+    }
+}
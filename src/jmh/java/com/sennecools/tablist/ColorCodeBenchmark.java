@@ -0,0 +1,69 @@
+package com.sennecools.tablist;
+
+import net.minecraft.network.chat.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Color code conversion, gradients (cold and warm {@link GradientCache}) and parsing into components.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColorCodeBenchmark {
+
+    private static final String PLAIN = "&fOnline: &e12&7/&e100 \n&7TPS: &a20.0 &7| MSPT: &#55FFFF3.2 \n"
+            + "&7Memory: &#AA55FF1024/4096 MB &7| Uptime: &#FFAA001h 2m";
+    private static final String GRADIENT = "&l<gradient:#FF5555:#5555FF>My Server Network</gradient> &7| "
+            + "<#FFAA00>Survival<#FFFF55> &7| &aOnline";
+
+    private String longGradient;
+    private String legacy;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        longGradient = "<gradient:#FF0000:#FFFF00:#00FF00:#00FFFF:#0000FF>"
+                + "The quick brown fox jumps over the lazy dog. ".repeat(10) + "</gradient>";
+        legacy = TabListVariables.convertColorCodes(PLAIN + "\n" + GRADIENT);
+    }
+
+    @Benchmark
+    public String convertPlain() {
+        return TabListVariables.convertColorCodes(PLAIN);
+    }
+
+    @Benchmark
+    public String convertWithGradients() {
+        return TabListVariables.convertColorCodes(GRADIENT);
+    }
+
+    @Benchmark
+    public String longGradientCold() {
+        GradientCache.clear();
+        return TabListVariables.convertColorCodes(longGradient);
+    }
+
+    @Benchmark
+    public String longGradientCached() {
+        return TabListVariables.convertColorCodes(longGradient);
+    }
+
+    @Benchmark
+    public Component parseColoredText() {
+        return TabListVariables.parseColoredText(legacy);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the default header and footer, raw and precompiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    private ConfigSnapshot config;
+    private List<String> frames;
+    private ViewerSnapshot viewer;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        config = BenchmarkSupport.defaultConfig();
+        frames = BenchmarkSupport.defaultFrames();
+        viewer = BenchmarkSupport.viewer(1);
+    }
+
+    @Benchmark
+    public void compileAndRender(Blackhole blackhole) {
+        PlaceholderContext context = PlaceholderContext.forConfig(config);
+        for (String frame : frames) {
+            blackhole.consume(TabListTemplate.compile(frame).render(context, viewer));
+        }
+    }
+
+    @Benchmark
+    public void renderCycle(Blackhole blackhole) {
+        PlaceholderContext context = PlaceholderContext.forConfig(config);
+        for (TabListTemplate header : config.headerTemplates()) {
+            blackhole.consume(context.render(header, viewer));
+        }
+        for (TabListTemplate footer : config.footerTemplates()) {
+            blackhole.consume(context.render(footer, viewer));
+        }
+    }
+}
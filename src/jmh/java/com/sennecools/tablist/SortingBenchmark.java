@@ -0,0 +1,67 @@
+package com.sennecools.tablist;
+
+import net.minecraft.world.scores.Scoreboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sorting pass over synthetic players, with nobody changing ({@link #steady}) or one rank change ({@link #churn}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortingBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int players;
+
+    private Scoreboard scoreboard;
+    private SortedTeamIndex index;
+    private List<SortedTeamIndex.Member> members;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        Random random = new Random(42);
+        members = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            members.add(new SortedTeamIndex.Member(new UUID(random.nextLong(), random.nextLong()),
+                    "Player" + random.nextInt(1_000_000), random.nextInt(5) * 10));
+        }
+        scoreboard = new Scoreboard();
+        index = new SortedTeamIndex();
+        index.syncMembers(scoreboard, members);
+    }
+
+    @Benchmark
+    public void steady() {
+        index.syncMembers(scoreboard, members);
+    }
+
+    @Benchmark
+    public void churn() {
+        int i = next++ % members.size();
+        SortedTeamIndex.Member member = members.get(i);
+        members.set(i, new SortedTeamIndex.Member(member.uuid(), member.name(), (member.power() + 10) % 50));
+        index.syncMembers(scoreboard, members);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sennecools.tablist;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import net.minecraft.network.Connection;
+import net.minecraft.network.PacketListener;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.protocol.PacketFlow;
+
+import java.util.function.Consumer;
+
+/**
+ * A server-side connection without a client: outgoing packets are handed to a callback and dropped.
+ */
+final class LoadTestConnection extends Connection {
+
+    LoadTestConnection(Consumer<Object> sink) {
+        super(PacketFlow.SERVERBOUND);
+        // Activating the channel calls channelActive on this connection, which takes the channel as its own
+        new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sink.accept(msg);
+                ReferenceCountUtil.release(msg);
+                promise.setSuccess();
+            }
+
+            @Override
+            public void flush(ChannelHandlerContext ctx) {
+            }
+        }, this);
+    }
+
+    @Override
+    public <T extends PacketListener> void setupInboundProtocol(ProtocolInfo<T> protocolInfo, T packetListener) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.sennecools.tablist;
+
+import net.fabricmc.api.DedicatedServerModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+
+/**
+ * Entrypoint of the load test mod, which only exists in the Loom {@code loadTest} run.
+ */
+public class LoadTestFabric implements DedicatedServerModInitializer {
+
+    @Override
+    public void onInitializeServer() {
+        // Registered after start so these tick hooks run after the updater's
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            LoadTestHarness loadTest = LoadTestHarness.fromSystemProperties(TabListUpdater.INSTANCE);
+            if (loadTest != null) {
+                ServerTickEvents.START_SERVER_TICK.register(loadTest::onTickStart);
+                ServerTickEvents.END_SERVER_TICK.register(loadTest::onTickEnd);
+            }
+        });
+    }
+}
@@ -0,0 +1,298 @@
+package com.sennecools.tablist;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
+import net.minecraft.network.protocol.game.ClientboundTabListPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ClientInformation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.CommonListenerCookie;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures the mod's cost with {@code -Dtablist.loadtest=<players>} synthetic players. Use a throwaway world.
+ */
+public final class LoadTestHarness {
+
+    public static final String PROPERTY = "tablist.loadtest";
+
+    private enum Phase {
+        SPAWN("spawn"),
+        WARMUP("warm-up"),
+        MOD_ON("mod on"),
+        MOD_OFF("mod off"),
+        METERING("metering"),
+        DONE("done");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final int METER_QUEUE_SIZE = 1 << 16;
+    private static final long METER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final TabListUpdater updater;
+    private final int playerCount;
+    private final long warmupNanos;
+    private final long phaseNanos;
+    private final boolean exitWhenDone;
+
+    private final List<ServerPlayer> players = new ArrayList<>();
+    private final PhaseStats[] stats = new PhaseStats[Phase.values().length];
+    private final AtomicLongArray packets = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray bytes = new AtomicLongArray(Phase.values().length);
+    private final BlockingQueue<Sent> meterQueue = new ArrayBlockingQueue<>(METER_QUEUE_SIZE);
+    private volatile Phase phase = Phase.SPAWN;
+    private final AtomicLong unmetered = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong metered = new AtomicLong();
+    private long phaseEndNanos;
+    private long tickStartNanos;
+    private Thread meter;
+
+    private LoadTestHarness(TabListUpdater updater, int playerCount, int warmupSeconds, int phaseSeconds,
+                            boolean exitWhenDone) {
+        this.updater = updater;
+        this.playerCount = playerCount;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.phaseNanos = TimeUnit.SECONDS.toNanos(phaseSeconds);
+        this.exitWhenDone = exitWhenDone;
+        for (Phase value : Phase.values()) {
+            stats[value.ordinal()] = new PhaseStats();
+        }
+    }
+
+    /**
+     * Returns a harness if the load test was requested through system properties, otherwise null.
+     */
+    public static LoadTestHarness fromSystemProperties(TabListUpdater updater) {
+        int players = Integer.getInteger(PROPERTY, 0);
+        if (players <= 0) {
+            return null;
+        }
+        return new LoadTestHarness(updater, players,
+                Integer.getInteger(PROPERTY + ".warmup", 20),
+                Integer.getInteger(PROPERTY + ".duration", 60),
+                !"false".equals(System.getProperty(PROPERTY + ".exit")));
+    }
+
+    public void onTickStart(MinecraftServer server) {
+        tickStartNanos = System.nanoTime();
+    }
+
+    public void onTickEnd(MinecraftServer server) {
+        long now = System.nanoTime();
+        switch (phase) {
+            case SPAWN -> {
+                spawnPlayers(server);
+                startPhase(Phase.WARMUP, now, warmupNanos);
+                return;
+            }
+            case METERING -> {
+                // Wait, a tick at a time, for the meter to catch up before reading the byte counts
+                if (metered.get() >= queued.get() || now >= phaseEndNanos) {
+                    report(server);
+                }
+                return;
+            }
+            case DONE -> {
+                return;
+            }
+            default -> stats[phase.ordinal()].record(now - tickStartNanos);
+        }
+
+        if (now < phaseEndNanos) {
+            return;
+        }
+        switch (phase) {
+            case WARMUP -> startPhase(Phase.MOD_ON, now, phaseNanos);
+            case MOD_ON -> {
+                startPhase(Phase.MOD_OFF, now, phaseNanos);
+                updater.setSuspended(true);
+            }
+            default -> {
+                startPhase(Phase.METERING, now, METER_TIMEOUT_NANOS);
+                updater.setSuspended(false);
+            }
+        }
+    }
+
+    private void startPhase(Phase next, long now, long duration) {
+        stats[phase.ordinal()].end(now);
+        stats[next.ordinal()].start(now);
+        phase = next;
+        phaseEndNanos = now + duration;
+        Constants.LOGGER.info("TabList load test: {} phase", next.label);
+    }
+
+    private void spawnPlayers(MinecraftServer server) {
+        startMeter(server.registryAccess());
+        Constants.LOGGER.info("TabList load test: adding {} synthetic players", playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            String name = "LoadTest" + i;
+            GameProfile profile = new GameProfile(
+                    UUID.nameUUIDFromBytes(("tablist-loadtest:" + name).getBytes(StandardCharsets.UTF_8)), name);
+            ServerPlayer player = new ServerPlayer(server, server.overworld(), profile, ClientInformation.createDefault());
+            server.getPlayerList().placeNewPlayer(new LoadTestConnection(this::onSent), player,
+                    CommonListenerCookie.createInitial(profile, false));
+            players.add(player);
+        }
+    }
+
+    private void onSent(Object packet) {
+        int index = phase.ordinal();
+        if (index >= Phase.METERING.ordinal()) {
+            return;
+        }
+        packets.incrementAndGet(index);
+        if (!isTabRelated(packet)) {
+            return;
+        }
+        if (meterQueue.offer(new Sent(index, packet))) {
+            queued.incrementAndGet();
+        } else {
+            unmetered.incrementAndGet();
+        }
+    }
+
+    private static boolean isTabRelated(Object packet) {
+        return packet instanceof ClientboundTabListPacket
+                || packet instanceof ClientboundPlayerInfoUpdatePacket
+                || packet instanceof ClientboundSetPlayerTeamPacket;
+    }
+
+    private void startMeter(RegistryAccess registries) {
+        meter = new Thread(() -> {
+            try {
+                while (true) {
+                    Sent sent = meterQueue.take();
+                    bytes.addAndGet(sent.phase(), encodedSize(sent.packet(), registries));
+                    metered.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+            }
+        }, "TabList Load Test Meter");
+        meter.setDaemon(true);
+        meter.start();
+    }
+
+    private static int encodedSize(Object packet, RegistryAccess registries) {
+        if (packet instanceof ClientboundTabListPacket tabList) {
+            return TabListMetrics.encodedSize(tabList, registries);
+        }
+        if (packet instanceof ClientboundPlayerInfoUpdatePacket playerInfo) {
+            return TabListMetrics.encodedSize(ClientboundPlayerInfoUpdatePacket.STREAM_CODEC, playerInfo, registries);
+        }
+        if (packet instanceof ClientboundSetPlayerTeamPacket team) {
+            return TabListMetrics.encodedSize(ClientboundSetPlayerTeamPacket.STREAM_CODEC, team, registries);
+        }
+        return 0;
+    }
+
+    private void report(MinecraftServer server) {
+        phase = Phase.DONE;
+        meter.interrupt();
+
+        List<String> report = report();
+        report.forEach(Constants.LOGGER::info);
+        Path file = server.getServerDirectory().resolve("tablist-loadtest.txt");
+        try {
+            Files.write(file, report, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Constants.LOGGER.error("Could not write {}", file, e);
+        }
+
+        // Goes through the usual logout path
+        for (ServerPlayer player : players) {
+            player.connection.disconnect(Component.literal("Load test finished"));
+        }
+        players.clear();
+        if (exitWhenDone) {
+            server.halt(false);
+        }
+    }
+
+    private List<String> report() {
+        PhaseStats on = stats[Phase.MOD_ON.ordinal()];
+        PhaseStats off = stats[Phase.MOD_OFF.ordinal()];
+        double onPackets = packets.get(Phase.MOD_ON.ordinal()) / on.seconds();
+        double offPackets = packets.get(Phase.MOD_OFF.ordinal()) / off.seconds();
+        double onBytes = bytes.get(Phase.MOD_ON.ordinal()) / on.seconds();
+        double offBytes = bytes.get(Phase.MOD_OFF.ordinal()) / off.seconds();
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("TabList load test: %d synthetic players, %.0f s per phase",
+                playerCount, phaseNanos / 1e9));
+        lines.add(String.format("  mod on : MSPT %.3f ms (p99 %.3f ms), %.1f packets/s, %.1f KB/s tab-related",
+                on.meanMillis(), on.p99Millis(), onPackets, onBytes / 1024));
+        lines.add(String.format("  mod off: MSPT %.3f ms (p99 %.3f ms), %.1f packets/s, %.1f KB/s tab-related",
+                off.meanMillis(), off.p99Millis(), offPackets, offBytes / 1024));
+        lines.add(String.format("  delta  : %+.3f ms MSPT, %+.1f packets/s, %+.1f KB/s",
+                on.meanMillis() - off.meanMillis(), onPackets - offPackets, (onBytes - offBytes) / 1024));
+        long missed = unmetered.get() + Math.max(0, queued.get() - metered.get());
+        if (missed > 0) {
+            lines.add(String.format("  (%d packets were not byte-metered; the meter fell behind)", missed));
+        }
+        return lines;
+    }
+
+    private record Sent(int phase, Object packet) {
+    }
+
+    /**
+     * Tick times of one phase. Server thread only.
+     */
+    private static final class PhaseStats {
+
+        private final List<Long> tickNanos = new ArrayList<>();
+        private long startNanos;
+        private long endNanos;
+
+        void start(long now) {
+            startNanos = now;
+        }
+
+        void end(long now) {
+            endNanos = now;
+        }
+
+        void record(long nanos) {
+            tickNanos.add(nanos);
+        }
+
+        double seconds() {
+            return Math.max(1e-3, (endNanos - startNanos) / 1e9);
+        }
+
+        double meanMillis() {
+            return tickNanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1e6;
+        }
+
+        double p99Millis() {
+            if (tickNanos.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = new ArrayList<>(tickNanos);
+            sorted.sort(null);
+            return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * 0.99) - 1)) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.sennecools.tablist;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * AFK state for online players, kept in primitive arrays and checked through a timer wheel. Server thread only.
+ */
+public final class AfkTracker {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+
+    // 256 one-second buckets; timers further out land early and are re-armed.
+    private static final int TICKS_PER_BUCKET = 20;
+    private static final int WHEEL_SIZE = 256;
+    private static final int AFK_RECHECK_TICKS = 20;
+
+    // Per-slot state
+    private long[] uuidMost = new long[INITIAL_CAPACITY];
+    private long[] uuidLeast = new long[INITIAL_CAPACITY];
+    private UUID[] uuids = new UUID[INITIAL_CAPACITY];
+    private double[] lastX = new double[INITIAL_CAPACITY];
+    private double[] lastZ = new double[INITIAL_CAPACITY];
+    private float[] lastYRot = new float[INITIAL_CAPACITY];
+    private float[] lastXRot = new float[INITIAL_CAPACITY];
+    private int[] lastActiveTick = new int[INITIAL_CAPACITY];
+    private boolean[] afk = new boolean[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int slotsInUse = 0;
+
+    // Timer wheel: intrusive doubly linked lists through the slots, one per bucket
+    private final int[] wheel = new int[WHEEL_SIZE];
+    private int[] timerNext = new int[INITIAL_CAPACITY];
+    private int[] timerPrev = new int[INITIAL_CAPACITY];
+    private int[] timerBucket = new int[INITIAL_CAPACITY];
+    private int cursor = -1;
+
+    // UUID -> slot index; entries are slot + 1 so that 0 means empty. Linear probing, at most half full.
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int size = 0;
+
+    public AfkTracker() {
+        Arrays.fill(wheel, NO_SLOT);
+    }
+
+    public void track(ServerPlayer player, int tick, int timeoutTicks) {
+        UUID uuid = player.getUUID();
+        int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (slot < 0) {
+            slot = insert(uuid);
+        }
+        storePosition(slot, player);
+        lastActiveTick[slot] = tick;
+        afk[slot] = false;
+        schedule(slot, tick, nextCheck(slot, tick, timeoutTicks));
+    }
+
+    /**
+     * Records activity reported by a hook (an action, a command, chat, an inventory click, ...).
+     */
+    public void markActive(UUID uuid, int tick) {
+        int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (slot >= 0) {
+            lastActiveTick[slot] = tick;
+            afk[slot] = false;
+        }
+    }
+
+    public boolean isAfk(UUID uuid) {
+        int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return slot >= 0 && afk[slot];
+    }
+
+    /**
+     * Runs the timers that are due by {@code tick}. Call once per server tick.
+     */
+    public void advance(MinecraftServer server, int tick, int timeoutTicks) {
+        int now = tick / TICKS_PER_BUCKET;
+        if (cursor < 0 || now - cursor > WHEEL_SIZE) {
+            // First call, or the server stalled for longer than one turn: one pass over the wheel is enough
+            cursor = Math.max(cursor, now - WHEEL_SIZE);
+        }
+        while (cursor <= now) {
+            int bucket = cursor & (WHEEL_SIZE - 1);
+            int slot = wheel[bucket];
+            wheel[bucket] = NO_SLOT;
+            cursor++;
+            while (slot != NO_SLOT) {
+                int next = timerNext[slot];
+                timerBucket[slot] = NO_SLOT;
+                check(server, slot, tick, timeoutTicks);
+                slot = next;
+            }
+        }
+    }
+
+    public void remove(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        int mask = table.length - 1;
+        int index = hash(most, least) & mask;
+        while (table[index] != 0) {
+            int slot = table[index] - 1;
+            if (uuidMost[slot] == most && uuidLeast[slot] == least) {
+                deleteAt(index);
+                unschedule(slot);
+                uuids[slot] = null;
+                freeSlots[freeCount++] = slot;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(wheel, NO_SLOT);
+        Arrays.fill(timerBucket, NO_SLOT);
+        Arrays.fill(afk, false);
+        Arrays.fill(uuids, null);
+        size = 0;
+        freeCount = 0;
+        slotsInUse = 0;
+        cursor = -1;
+    }
+
+    private void check(MinecraftServer server, int slot, int tick, int timeoutTicks) {
+        ServerPlayer player = server.getPlayerList().getPlayer(uuids[slot]);
+        if (player == null) {
+            return;
+        }
+        if (lastX[slot] != player.getX() || lastZ[slot] != player.getZ()
+                || lastYRot[slot] != player.getYRot() || lastXRot[slot] != player.getXRot()) {
+            storePosition(slot, player);
+            lastActiveTick[slot] = tick;
+        }
+
+        boolean nowAfk = tick - lastActiveTick[slot] >= timeoutTicks;
+        if (afk[slot] != nowAfk) {
+            afk[slot] = nowAfk;
+        }
+        schedule(slot, tick, nowAfk ? tick + AFK_RECHECK_TICKS : nextCheck(slot, tick, timeoutTicks));
+    }
+
+    private int nextCheck(int slot, int tick, int timeoutTicks) {
+        return Math.min(lastActiveTick[slot] + timeoutTicks, tick + Math.max(timeoutTicks / 4, AFK_RECHECK_TICKS));
+    }
+
+    private void storePosition(int slot, ServerPlayer player) {
+        lastX[slot] = player.getX();
+        lastZ[slot] = player.getZ();
+        lastYRot[slot] = player.getYRot();
+        lastXRot[slot] = player.getXRot();
+    }
+
+    private void schedule(int slot, int tick, int dueTick) {
+        unschedule(slot);
+        // Round up, and never into a bucket that has already been run this turn
+        int time = Math.max((dueTick + TICKS_PER_BUCKET - 1) / TICKS_PER_BUCKET, tick / TICKS_PER_BUCKET + 1);
+        if (cursor >= 0) {
+            time = Math.max(time, cursor);
+        }
+        int bucket = time & (WHEEL_SIZE - 1);
+        int head = wheel[bucket];
+        timerPrev[slot] = NO_SLOT;
+        timerNext[slot] = head;
+        if (head != NO_SLOT) {
+            timerPrev[head] = slot;
+        }
+        wheel[bucket] = slot;
+        timerBucket[slot] = bucket;
+    }
+
+    private void unschedule(int slot) {
+        int bucket = timerBucket[slot];
+        if (bucket == NO_SLOT) {
+            return;
+        }
+        int prev = timerPrev[slot];
+        int next = timerNext[slot];
+        if (prev != NO_SLOT) {
+            timerNext[prev] = next;
+        } else {
+            wheel[bucket] = next;
+        }
+        if (next != NO_SLOT) {
+            timerPrev[next] = prev;
+        }
+        timerBucket[slot] = NO_SLOT;
+    }
+
+    private int find(long most, long least) {
+        int mask = table.length - 1;
+        int index = hash(most, least) & mask;
+        while (table[index] != 0) {
+            int slot = table[index] - 1;
+            if (uuidMost[slot] == most && uuidLeast[slot] == least) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insert(UUID uuid) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotsInUse == uuidMost.length) {
+                growSlots();
+            }
+            slot = slotsInUse++;
+        }
+        uuidMost[slot] = uuid.getMostSignificantBits();
+        uuidLeast[slot] = uuid.getLeastSignificantBits();
+        uuids[slot] = uuid;
+        timerBucket[slot] = NO_SLOT;
+
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        place(slot);
+        size++;
+        return slot;
+    }
+
+    private void place(int slot) {
+        int mask = table.length - 1;
+        int index = hash(uuidMost[slot], uuidLeast[slot]) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = slot + 1;
+    }
+
+    /**
+     * Removes the table entry at {@code index}, shifting later entries of its probe run back.
+     */
+    private void deleteAt(int index) {
+        int mask = table.length - 1;
+        int hole = index;
+        table[hole] = 0;
+        size--;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int slot = table[next] - 1;
+            int home = hash(uuidMost[slot], uuidLeast[slot]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, next]
+            boolean stays = hole <= next
+                    ? hole < home && home <= next
+                    : hole < home || home <= next;
+            if (!stays) {
+                table[hole] = table[next];
+                table[next] = 0;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = new int[capacity];
+        for (int entry : old) {
+            if (entry != 0) {
+                place(entry - 1);
+            }
+        }
+    }
+
+    private void growSlots() {
+        int capacity = uuidMost.length * 2;
+        uuidMost = Arrays.copyOf(uuidMost, capacity);
+        uuidLeast = Arrays.copyOf(uuidLeast, capacity);
+        uuids = Arrays.copyOf(uuids, capacity);
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastZ = Arrays.copyOf(lastZ, capacity);
+        lastYRot = Arrays.copyOf(lastYRot, capacity);
+        lastXRot = Arrays.copyOf(lastXRot, capacity);
+        lastActiveTick = Arrays.copyOf(lastActiveTick, capacity);
+        afk = Arrays.copyOf(afk, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        timerNext = Arrays.copyOf(timerNext, capacity);
+        timerPrev = Arrays.copyOf(timerPrev, capacity);
+        timerBucket = Arrays.copyOf(timerBucket, capacity);
+    }
+
+    private static int hash(long most, long least) {
+        long bits = most ^ least;
+        int h = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
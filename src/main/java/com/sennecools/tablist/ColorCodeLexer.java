@@ -0,0 +1,460 @@
+package com.sennecools.tablist;
+
+/**
+ * Converts config color syntax ({@code &c}, {@code &#RRGGBB}, gradients) to legacy {@code §} codes without regexes.
+ */
+final class ColorCodeLexer {
+
+    private static final String GRADIENT_OPEN = "<gradient:";
+    private static final String GRADIENT_CLOSE = "</gradient>";
+    private static final char SECTION = '\u00A7';
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ColorCodeLexer() {
+    }
+
+    static String convert(String text) {
+        String converted = convertSinglePass(text);
+        return converted != null ? converted : convertStaged(text);
+    }
+
+    /**
+     * Converts {@code text} in one scan, or returns null if the result depends on the old pass order.
+     */
+    private static String convertSinglePass(String text) {
+        int length = text.length();
+        StringBuilder out = new StringBuilder(length + (length >> 1));
+        boolean gradients = text.indexOf('<') >= 0;
+        // Output index of a gradient's trailing visible '&', which may still pair with the following text
+        int pendingAmp = -1;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            int carriedAmp = pendingAmp;
+            pendingAmp = -1;
+            if (carriedAmp >= 0) {
+                int consumed = codeAfterAmp(text, i, out, carriedAmp);
+                if (consumed > 0) {
+                    i += consumed;
+                    continue;
+                }
+            }
+
+            if (c == '<' && gradients) {
+                int end = gradientEnd(text, i);
+                if (end >= 0) {
+                    int start = out.length();
+                    if (!appendGradient(text, i, end, out, false)) {
+                        return null;
+                    }
+                    if (out.length() == start) {
+                        // An empty gradient joins the text around it, which may complete a code or a tag
+                        if (carriedAmp >= 0 || endsWithTokenPrefix(text, i)) {
+                            return null;
+                        }
+                    } else {
+                        char last = out.charAt(out.length() - 1);
+                        if (last == '<') {
+                            return null;
+                        }
+                        if (last == '&') {
+                            pendingAmp = out.length() - 1;
+                        }
+                    }
+                    i = end;
+                    continue;
+                }
+            }
+
+            if (c == '&') {
+                out.append('&');
+                int consumed = codeAfterAmp(text, i + 1, out, out.length() - 1);
+                i += 1 + consumed;
+                continue;
+            }
+
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Converts the {@code &} at {@code ampIndex} in {@code out} if {@code text} continues it at {@code index}.
+     * Returns the number of characters used, 0 if the {@code &} stays literal.
+     */
+    private static int codeAfterAmp(String text, int index, StringBuilder out, int ampIndex) {
+        if (index >= text.length()) {
+            return 0;
+        }
+        char code = text.charAt(index);
+        if (code == '#' && isHex(text, index + 1, 6)) {
+            out.setLength(ampIndex);
+            out.append(SECTION).append('x');
+            for (int j = index + 1; j < index + 7; j++) {
+                out.append(SECTION).append(text.charAt(j));
+            }
+            return 7;
+        }
+        if (isColorCode(code) || isFormatCode(code)) {
+            out.setCharAt(ampIndex, SECTION);
+            out.append(code);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Whether the text before {@code index} ends with an unfinished code, hex color or {@code <#..>} tag.
+     */
+    static boolean endsWithTokenPrefix(String text, int index) {
+        int j = index;
+        while (j > 0 && index - j < 6 && isHexChar(text.charAt(j - 1))) {
+            j--;
+        }
+        int hexDigits = index - j;
+        if (j == 0) {
+            return false;
+        }
+        char before = text.charAt(j - 1);
+        if (hexDigits == 0) {
+            if (before == '&' || before == '<') {
+                return true;
+            }
+            if (before == '/' && j > 1 && text.charAt(j - 2) == '<') {
+                return true;
+            }
+        }
+        if (before != '#' || j < 2) {
+            return false;
+        }
+        char opener = text.charAt(j - 2);
+        return (opener == '&' && hexDigits < 6)
+                || opener == '<'
+                || (opener == '/' && j > 2 && text.charAt(j - 3) == '<');
+    }
+
+    /**
+     * Slow path for inputs that depend on the old pass order: gradient spans, then {@code <#..>} spans, then codes.
+     */
+    private static String convertStaged(String text) {
+        String expanded = expandGradients(expandGradients(text, true), false);
+        StringBuilder out = new StringBuilder(expanded.length() + (expanded.length() >> 1));
+        int i = 0;
+        while (i < expanded.length()) {
+            char c = expanded.charAt(i);
+            out.append(c);
+            i++;
+            if (c == '&') {
+                i += codeAfterAmp(expanded, i, out, out.length() - 1);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String expandGradients(String text, boolean miniMessage) {
+        StringBuilder out = null;
+        int copied = 0;
+        int i = text.indexOf('<');
+        while (i >= 0) {
+            int end = miniMessage ? miniMessageEnd(text, i) : tabEnd(text, i);
+            if (end < 0) {
+                i = text.indexOf('<', i + 1);
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(text.length() * 2);
+            }
+            out.append(text, copied, i);
+            appendGradient(text, i, end, out, true);
+            copied = end;
+            i = text.indexOf('<', end);
+        }
+        return out == null ? text : out.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * Returns the index just past the gradient span starting at {@code start}, or -1 if there is none.
+     */
+    private static int gradientEnd(String text, int start) {
+        int end = miniMessageEnd(text, start);
+        return end >= 0 ? end : tabEnd(text, start);
+    }
+
+    private static int miniMessageEnd(String text, int start) {
+        if (!text.startsWith(GRADIENT_OPEN, start)) {
+            return -1;
+        }
+        int tagEnd = miniMessageTagEnd(text, start);
+        if (tagEnd < 0) {
+            return -1;
+        }
+        int close = findClose(text, tagEnd, true);
+        return close >= 0 ? close + GRADIENT_CLOSE.length() : -1;
+    }
+
+    private static int tabEnd(String text, int start) {
+        if (!isTabTag(text, start, false)) {
+            return -1;
+        }
+        int close = findClose(text, start + 9, false);
+        return close >= 0 ? close + 10 : -1;
+    }
+
+    /**
+     * Returns the index past the {@code >} of a {@code <gradient:#..(:#..)+>} tag, or -1.
+     */
+    private static int miniMessageTagEnd(String text, int start) {
+        int index = start + GRADIENT_OPEN.length();
+        int stops = 0;
+        while (true) {
+            if (!(index < text.length() && text.charAt(index) == '#' && isHex(text, index + 1, 6))) {
+                return -1;
+            }
+            index += 7;
+            stops++;
+            if (index < text.length() && text.charAt(index) == ':') {
+                index++;
+                continue;
+            }
+            return stops >= 2 && index < text.length() && text.charAt(index) == '>' ? index + 1 : -1;
+        }
+    }
+
+    /**
+     * Finds the first closing tag at or after {@code from}, stopping at a line break.
+     */
+    private static int findClose(String text, int from, boolean miniMessage) {
+        for (int j = from; j < text.length(); j++) {
+            char c = text.charAt(j);
+            if (isLineTerminator(c)) {
+                return -1;
+            }
+            if (c == '<') {
+                if (miniMessage ? text.startsWith(GRADIENT_CLOSE, j) : isTabTag(text, j, true)) {
+                    return j;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether {@code <#RRGGBB>} (or {@code </#RRGGBB>} when {@code closing}) starts at {@code index}.
+     */
+    private static boolean isTabTag(String text, int index, boolean closing) {
+        int hash = index + (closing ? 2 : 1);
+        if (hash + 8 > text.length() || text.charAt(index) != '<'
+                || (closing && text.charAt(index + 1) != '/') || text.charAt(hash) != '#') {
+            return false;
+        }
+        return isHex(text, hash + 1, 6) && text.charAt(hash + 7) == '>';
+    }
+
+    /**
+     * Appends the gradient span {@code [start, end)}; returns false if it needs the staged path.
+     */
+    private static boolean appendGradient(String text, int start, int end, StringBuilder out, boolean staged) {
+        int[] stops;
+        int innerStart;
+        int innerEnd;
+        if (text.startsWith(GRADIENT_OPEN, start)) {
+            int tagEnd = miniMessageTagEnd(text, start);
+            stops = new int[(tagEnd - start - GRADIENT_OPEN.length()) / 8];
+            for (int s = 0; s < stops.length; s++) {
+                stops[s] = parseHex(text, start + GRADIENT_OPEN.length() + s * 8 + 1);
+            }
+            innerStart = tagEnd;
+            innerEnd = end - GRADIENT_CLOSE.length();
+        } else {
+            innerStart = start + 9;
+            innerEnd = end - 10;
+            // The old chain expanded <gradient:> spans before looking for <#..> spans
+            int nested = text.indexOf(GRADIENT_OPEN, innerStart);
+            if (!staged && nested >= 0 && nested + GRADIENT_OPEN.length() <= innerEnd) {
+                return false;
+            }
+            stops = new int[]{parseHex(text, start + 2), parseHex(text, end - 7)};
+        }
+        String inner = text.substring(innerStart, innerEnd);
+        if (staged) {
+            applyGradient(stripHexCodes(inner, 0, inner.length()), stops, out, false);
+            return true;
+        }
+        String cached = GradientCache.expansion(stops, inner);
+        if (cached != null) {
+            out.append(cached);
+            return true;
+        }
+        int expansionStart = out.length();
+        applyGradient(stripHexCodes(inner, 0, inner.length()), stops, out, true);
+        GradientCache.putExpansion(stops, inner, out.substring(expansionStart));
+        return true;
+    }
+
+    /**
+     * Removes {@code &x&R&R&G&G&B&B} sequences, which have no meaning inside a gradient.
+     */
+    private static String stripHexCodes(String text, int start, int end) {
+        StringBuilder stripped = null;
+        int copied = start;
+        int j = start;
+        while (j < end) {
+            if (text.charAt(j) == '&' && j + 14 <= end && text.charAt(j + 1) == 'x' && isAmpHexSequence(text, j + 2)) {
+                if (stripped == null) {
+                    stripped = new StringBuilder(end - start);
+                }
+                stripped.append(text, copied, j);
+                j += 14;
+                copied = j;
+                continue;
+            }
+            j++;
+        }
+        if (stripped == null) {
+            return text.substring(start, end);
+        }
+        return stripped.append(text, copied, end).toString();
+    }
+
+    private static boolean isAmpHexSequence(String text, int index) {
+        for (int k = 0; k < 6; k++) {
+            if (text.charAt(index + k * 2) != '&' || !isHexChar(text.charAt(index + k * 2 + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void applyGradient(String inner, int[] stops, StringBuilder out, boolean convertCodes) {
+        int length = inner.length();
+        int visible = 0;
+        for (int j = 0; j < length; j++) {
+            if (inner.charAt(j) == '&' && j + 1 < length && isCode(inner.charAt(j + 1))) {
+                j++;
+                continue;
+            }
+            visible++;
+        }
+
+        if (visible == 0) {
+            // Only codes: they are converted like ordinary text
+            if (!convertCodes) {
+                out.append(inner);
+                return;
+            }
+            for (int j = 0; j < length; j += 2) {
+                out.append(SECTION).append(inner.charAt(j + 1));
+            }
+            return;
+        }
+
+        int[] colors = GradientCache.ramp(stops, visible);
+        StringBuilder formatting = null;
+        int index = 0;
+        for (int j = 0; j < length; j++) {
+            char c = inner.charAt(j);
+            if (c == '&' && j + 1 < length && isCode(inner.charAt(j + 1))) {
+                char code = inner.charAt(j + 1);
+                if (isFormatCode(code)) {
+                    if (formatting == null) {
+                        formatting = new StringBuilder();
+                    }
+                    formatting.append(SECTION).append(code);
+                } else if (formatting != null) {
+                    formatting.setLength(0);
+                }
+                j++;
+                continue;
+            }
+
+            int rgb = colors[index];
+            out.append(SECTION).append('x');
+            for (int shift = 20; shift >= 0; shift -= 4) {
+                out.append(SECTION).append(HEX_DIGITS[(rgb >> shift) & 0xF]);
+            }
+            if (formatting != null) {
+                out.append(formatting);
+            }
+            out.append(c);
+            index++;
+        }
+    }
+
+    /**
+     * Color of visible character {@code index} of {@code count}, rounded exactly like the old double-based code.
+     */
+    static int gradientColor(int[] stops, int segments, int index, int count) {
+        int denominator = count == 1 ? 1 : count - 1;
+        long position = (long) index * segments;
+        int segment = (int) Math.min(position / denominator, segments - 1);
+        long numerator = position - (long) segment * denominator;
+        int from = stops[segment];
+        int to = stops[segment + 1];
+        int rgb = 0;
+        for (int shift = 16; shift >= 0; shift -= 8) {
+            int start = (from >> shift) & 0xFF;
+            int delta = ((to >> shift) & 0xFF) - start;
+            long scaled = 2L * delta * numerator;
+            int channel;
+            if (Math.floorMod(scaled, 2L * denominator) == denominator) {
+                channel = legacyChannel(stops, segments, index, count, shift);
+            } else {
+                channel = (int) Math.floorDiv(2L * start * denominator + scaled + denominator, 2L * denominator);
+            }
+            rgb |= Math.max(0, Math.min(255, channel)) << shift;
+        }
+        return rgb;
+    }
+
+    private static int legacyChannel(int[] stops, int segments, int index, int count, int shift) {
+        double t = count == 1 ? 0.0 : (double) index / (count - 1);
+        double segmentPos = t * segments;
+        int segment = Math.min((int) segmentPos, segments - 1);
+        double localT = segmentPos - segment;
+        int start = (stops[segment] >> shift) & 0xFF;
+        int end = (stops[segment + 1] >> shift) & 0xFF;
+        return (int) Math.round(start + (end - start) * localT);
+    }
+
+    private static int parseHex(String text, int index) {
+        int value = 0;
+        for (int j = index; j < index + 6; j++) {
+            value = (value << 4) | Character.digit(text.charAt(j), 16);
+        }
+        return value;
+    }
+
+    private static boolean isHex(String text, int index, int count) {
+        if (index + count > text.length()) {
+            return false;
+        }
+        for (int j = index; j < index + count; j++) {
+            if (!isHexChar(text.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isCode(char c) {
+        return isColorCode(c) || isFormatCode(c);
+    }
+
+    private static boolean isColorCode(char c) {
+        return isHexChar(c) || c == 'r' || c == 'R';
+    }
+
+    private static boolean isFormatCode(char c) {
+        return (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O');
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,116 @@
+package com.sennecools.tablist;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Decides which players actually need their header/footer or display name re-rendered. Server thread only.
+ */
+public class DirtyTracker {
+
+    private static final Placeholder.Source[] SOURCES = Placeholder.Source.values();
+    private static final Placeholder[] PLACEHOLDERS = Placeholder.values();
+
+    private final String[] sampledValues = new String[SOURCES.length];
+    private final long[] changedCycle = new long[SOURCES.length];
+    private final Map<UUID, Rendered> rendered = new HashMap<>();
+    private final Map<UUID, ViewerSnapshot> displayInputs = new HashMap<>();
+    private long cycle = 0;
+
+    /**
+     * Starts a new cycle and samples the global sources in {@code sources}, as the text viewers would see.
+     */
+    public void sample(PlaceholderContext context, int sources) {
+        cycle++;
+        for (Placeholder.Source source : SOURCES) {
+            if (source.perPlayer() || (sources & source.mask()) == 0) {
+                continue;
+            }
+            String value = sampleValue(source, context);
+            int index = source.ordinal();
+            if (!value.equals(sampledValues[index])) {
+                sampledValues[index] = value;
+                changedCycle[index] = cycle;
+            }
+        }
+    }
+
+    /**
+     * Whether the viewer's header/footer may differ from what it was last rendered with.
+     */
+    public boolean isTabDirty(ViewerSnapshot viewer, TabListTemplate header, TabListTemplate footer, boolean perPlayerChanges) {
+        Rendered last = rendered.get(viewer.uuid());
+        if (last == null || last.header() != header || last.footer() != footer) {
+            return true;
+        }
+
+        int sources = header.sources() | footer.sources();
+        for (Placeholder.Source source : SOURCES) {
+            if ((sources & source.mask()) == 0) {
+                continue;
+            }
+            boolean changed = source.perPlayer()
+                    ? perPlayerChanges && playerSourceChanged(source, last.viewer(), viewer)
+                    : changedCycle[source.ordinal()] > last.cycle();
+            if (changed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void markRendered(List<ViewerSnapshot> viewers, TabListTemplate header, TabListTemplate footer) {
+        for (ViewerSnapshot viewer : viewers) {
+            rendered.put(viewer.uuid(), new Rendered(header, footer, viewer, cycle));
+        }
+    }
+
+    /**
+     * Whether the viewer's display name inputs changed since the last call; records the new ones either way.
+     */
+    public boolean checkDisplayName(ViewerSnapshot viewer) {
+        ViewerSnapshot previous = displayInputs.put(viewer.uuid(), viewer);
+        return previous == null
+                || previous.afk() != viewer.afk()
+                || !previous.name().equals(viewer.name())
+                || !previous.rank().equals(viewer.rank());
+    }
+
+    public void forget(UUID uuid) {
+        rendered.remove(uuid);
+        displayInputs.remove(uuid);
+    }
+
+    public void clear() {
+        rendered.clear();
+        displayInputs.clear();
+    }
+
+    private static boolean playerSourceChanged(Placeholder.Source source, ViewerSnapshot last, ViewerSnapshot now) {
+        return switch (source) {
+            case NAME -> !last.name().equals(now.name());
+            case PING -> last.ping() != now.ping();
+            case RANK -> !Objects.equals(last.rank().rankName(), now.rank().rankName());
+            case AFK -> last.afk() != now.afk();
+            case WORLD -> !last.dimension().equals(now.dimension());
+            default -> false;
+        };
+    }
+
+    // The context caches these values, so the render uses exactly what was sampled here
+    private static String sampleValue(Placeholder.Source source, PlaceholderContext context) {
+        StringBuilder value = new StringBuilder();
+        for (Placeholder placeholder : PLACEHOLDERS) {
+            if (placeholder.source() == source) {
+                value.append(context.resolve(placeholder, null)).append('\n');
+            }
+        }
+        return value.toString();
+    }
+
+    private record Rendered(TabListTemplate header, TabListTemplate footer, ViewerSnapshot viewer, long cycle) {
+    }
+}
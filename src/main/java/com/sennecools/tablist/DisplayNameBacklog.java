@@ -0,0 +1,83 @@
+package com.sennecools.tablist;
+
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Holds display name updates back from backlogged players and resyncs them once drained. Server thread only.
+ */
+final class DisplayNameBacklog {
+
+    private final Set<UUID> missed = new HashSet<>();
+
+    /**
+     * Returns the players that can take a display name update now, and remembers the others.
+     */
+    List<ServerPlayer> recipients(List<ServerPlayer> players) {
+        return recipients(players, ServerPlayer::getUUID, SharedPacketSender::isWritable);
+    }
+
+    void resync(MinecraftServer server) {
+        if (missed.isEmpty()) {
+            return;
+        }
+        List<ServerPlayer> online = server.getPlayerList().getPlayers();
+        List<ServerPlayer> drained = drained(online, ServerPlayer::getUUID, SharedPacketSender::isWritable);
+        if (drained.isEmpty()) {
+            return;
+        }
+        ClientboundPlayerInfoUpdatePacket packet = new ClientboundPlayerInfoUpdatePacket(
+                EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.UPDATE_DISPLAY_NAME),
+                online
+        );
+        SharedPacketSender.send(packet, drained);
+    }
+
+    /**
+     * {@link #recipients(List)} on any kind of player; also used by the tests.
+     */
+    <P> List<P> recipients(List<P> players, Function<P, UUID> uuids, Predicate<P> writable) {
+        List<P> recipients = new ArrayList<>(players.size());
+        for (P player : players) {
+            if (writable.test(player)) {
+                recipients.add(player);
+            } else {
+                missed.add(uuids.apply(player));
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * Removes and returns the held players among {@code online} whose channel has drained.
+     */
+    <P> List<P> drained(List<P> online, Function<P, UUID> uuids, Predicate<P> writable) {
+        List<P> drained = new ArrayList<>();
+        for (P player : online) {
+            UUID uuid = uuids.apply(player);
+            if (missed.contains(uuid) && writable.test(player)) {
+                missed.remove(uuid);
+                drained.add(player);
+            }
+        }
+        return drained;
+    }
+
+    void forget(UUID uuid) {
+        missed.remove(uuid);
+    }
+
+    void clear() {
+        missed.clear();
+    }
+}
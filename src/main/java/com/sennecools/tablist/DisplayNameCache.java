@@ -0,0 +1,63 @@
+package com.sennecools.tablist;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player cache of the final tab list display name, read by the loader hooks.
+ */
+public class DisplayNameCache {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached display name, resolving it first if the player has not been seen yet.
+     */
+    public Component get(ServerPlayer player) {
+        Entry entry = entries.get(player.getUUID());
+        if (entry == null) {
+            String displayName = TabListVariables.resolveDisplayName(player);
+            // Not broadcast yet: the next update() still reports it so every client catches up
+            entry = new Entry(displayName, isAFK(player), TabListVariables.parseColoredText(displayName), false);
+            entries.put(player.getUUID(), entry);
+        }
+        return entry.component();
+    }
+
+    /**
+     * Re-resolves the player's display name; returns true if clients need an update.
+     */
+    public boolean update(ServerPlayer player) {
+        String displayName = TabListVariables.resolveDisplayName(player);
+        boolean afk = isAFK(player);
+        Entry previous = entries.get(player.getUUID());
+        if (previous != null && previous.afk() == afk && previous.displayName().equals(displayName)) {
+            if (!previous.sent()) {
+                entries.put(player.getUUID(), new Entry(displayName, afk, previous.component(), true));
+                return true;
+            }
+            return false;
+        }
+        entries.put(player.getUUID(), new Entry(displayName, afk, TabListVariables.parseColoredText(displayName), true));
+        return true;
+    }
+
+    public void remove(UUID uuid) {
+        entries.remove(uuid);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static boolean isAFK(ServerPlayer player) {
+        return TabListUpdater.INSTANCE != null && TabListUpdater.INSTANCE.isPlayerAFK(player);
+    }
+
+    private record Entry(String displayName, boolean afk, Component component, boolean sent) {
+    }
+}
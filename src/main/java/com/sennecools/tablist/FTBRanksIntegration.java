@@ -9,20 +9,18 @@ import java.util.List;
 
 public class FTBRanksIntegration {
 
-    public static String getPlayerRankName(ServerPlayer player) {
+    /**
+     * Reads everything the tab list needs from FTB Ranks with a single rank lookup.
+     */
+    public static RankCache.RankInfo getRankInfo(ServerPlayer player, boolean includeFormattedName) {
         List<Rank> ranks = FTBRanksAPI.manager().getRanks(player);
-        if (!ranks.isEmpty()) {
-            return ranks.getFirst().getName();
+        int power = ranks.isEmpty() ? 0 : Integer.MIN_VALUE;
+        for (Rank rank : ranks) {
+            power = Math.max(power, rank.getPower());
         }
-        return "";
-    }
-
-    public static int getPlayerRankPower(ServerPlayer player) {
-        List<Rank> ranks = FTBRanksAPI.manager().getRanks(player);
-        if (!ranks.isEmpty()) {
-            return ranks.stream().mapToInt(Rank::getPower).max().orElse(0);
-        }
-        return 0;
+        String rankName = ranks.isEmpty() ? "" : ranks.getFirst().getName();
+        String formattedName = includeFormattedName ? getFormattedDisplayName(player) : null;
+        return new RankCache.RankInfo(power, rankName, formattedName);
     }
 
     public static String getFormattedDisplayName(ServerPlayer player) {
@@ -0,0 +1,60 @@
+package com.sennecools.tablist;
+
+import java.util.List;
+
+/**
+ * Tracks which header or footer frame is showing. Server thread only.
+ */
+final class FrameCycler {
+
+    private int index = 0;
+    private int rounds = 0;
+    private long frameStartNanos;
+    private boolean started = false;
+
+    TabListTemplate current(List<TabListTemplate> frames) {
+        return frames.isEmpty() ? TabListTemplate.EMPTY : frames.get(index % frames.size());
+    }
+
+    /**
+     * Moves to the next frame when the current one is over; returns true if a timed frame just ended.
+     */
+    boolean advance(List<TabListTemplate> frames, boolean newRound, int roundsPerFrame, long now) {
+        if (!started) {
+            started = true;
+            frameStartNanos = now;
+        }
+        if (frames.size() <= 1) {
+            return false;
+        }
+
+        int durationMs = current(frames).durationMs();
+        if (durationMs > 0) {
+            long durationNanos = durationMs * 1_000_000L;
+            if (now - frameStartNanos < durationNanos) {
+                return false;
+            }
+            // Keep the cadence across frames, unless the server fell far behind
+            frameStartNanos = now - frameStartNanos < 2 * durationNanos ? frameStartNanos + durationNanos : now;
+            next(frames);
+            return true;
+        }
+
+        if (newRound && ++rounds >= roundsPerFrame) {
+            frameStartNanos = now;
+            next(frames);
+        }
+        return false;
+    }
+
+    void reset() {
+        index = 0;
+        rounds = 0;
+        started = false;
+    }
+
+    private void next(List<TabListTemplate> frames) {
+        index = (index + 1) % frames.size();
+        rounds = 0;
+    }
+}
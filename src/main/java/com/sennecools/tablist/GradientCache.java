@@ -0,0 +1,97 @@
+package com.sennecools.tablist;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-capped LRU caches for gradients that wrap a placeholder, keyed by stops and inner text.
+ */
+final class GradientCache {
+
+    private static final int MAX_EXPANSIONS = 512;
+    private static final int MAX_RAMPS = 256;
+
+    private static final Map<ExpansionKey, String> EXPANSIONS = lru(MAX_EXPANSIONS);
+    private static final Map<RampKey, int[]> RAMPS = lru(MAX_RAMPS);
+
+    static final LongAdder EXPANSION_HITS = new LongAdder();
+    static final LongAdder EXPANSION_MISSES = new LongAdder();
+    static final LongAdder RAMP_HITS = new LongAdder();
+    static final LongAdder RAMP_MISSES = new LongAdder();
+
+    private GradientCache() {
+    }
+
+    /**
+     * Returns the cached expansion of {@code inner} with {@code stops}, or null.
+     */
+    static String expansion(int[] stops, String inner) {
+        String expanded = EXPANSIONS.get(new ExpansionKey(stops, inner));
+        (expanded != null ? EXPANSION_HITS : EXPANSION_MISSES).increment();
+        return expanded;
+    }
+
+    static void putExpansion(int[] stops, String inner, String expanded) {
+        EXPANSIONS.put(new ExpansionKey(stops, inner), expanded);
+    }
+
+    /**
+     * Returns the RGB color of each of {@code count} visible characters; the array is shared.
+     */
+    static int[] ramp(int[] stops, int count) {
+        RampKey key = new RampKey(stops, count);
+        int[] colors = RAMPS.get(key);
+        if (colors != null) {
+            RAMP_HITS.increment();
+            return colors;
+        }
+        RAMP_MISSES.increment();
+        colors = new int[count];
+        for (int index = 0; index < count; index++) {
+            colors[index] = ColorCodeLexer.gradientColor(stops, stops.length - 1, index, count);
+        }
+        RAMPS.put(key, colors);
+        return colors;
+    }
+
+    static void clear() {
+        EXPANSIONS.clear();
+        RAMPS.clear();
+    }
+
+    private static <K, V> Map<K, V> lru(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private record ExpansionKey(int[] stops, String inner) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ExpansionKey other && Arrays.equals(stops, other.stops) && inner.equals(other.inner);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(stops) + inner.hashCode();
+        }
+    }
+
+    private record RampKey(int[] stops, int count) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RampKey other && Arrays.equals(stops, other.stops) && count == other.count;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(stops) + count;
+        }
+    }
+}
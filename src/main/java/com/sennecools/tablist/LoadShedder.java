@@ -0,0 +1,81 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+
+import java.util.List;
+
+/**
+ * Backs tab list work off in levels while the server's tick time is over the thresholds. Server thread only.
+ */
+final class LoadShedder {
+
+    static final int MAX_LEVEL = 3;
+
+    private static final long RECOVER_HOLD_NANOS = 5_000_000_000L;
+    private static final double RECOVER_FACTOR = 0.9;
+
+    private int level = 0;
+    private long calmSinceNanos = -1;
+
+    /**
+     * Re-evaluates the level from the current average tick time.
+     */
+    void update(ConfigSnapshot config, double mspt, long now) {
+        List<Double> thresholds = config.adaptiveThresholds();
+        if (!config.adaptiveEnabled() || thresholds.isEmpty()) {
+            level = 0;
+            calmSinceNanos = -1;
+            return;
+        }
+
+        int target = 0;
+        while (target < Math.min(MAX_LEVEL, thresholds.size()) && mspt > thresholds.get(target)) {
+            target++;
+        }
+        if (target >= level) {
+            level = target;
+            calmSinceNanos = -1;
+            return;
+        }
+
+        // Step down once it has stayed comfortably below for a while
+        if (mspt >= thresholds.get(level - 1) * RECOVER_FACTOR) {
+            calmSinceNanos = -1;
+        } else if (calmSinceNanos < 0) {
+            calmSinceNanos = now;
+        } else if (now - calmSinceNanos >= RECOVER_HOLD_NANOS) {
+            level--;
+            calmSinceNanos = level > 0 ? now : -1;
+        }
+    }
+
+    int level() {
+        return level;
+    }
+
+    int intervalStretch() {
+        return 1 << level;
+    }
+
+    boolean animationsPaused() {
+        return level >= 2;
+    }
+
+    boolean perPlayerRefreshes() {
+        return level < 3;
+    }
+
+    void reset() {
+        level = 0;
+        calmSinceNanos = -1;
+    }
+
+    static String describe(int level) {
+        return switch (level) {
+            case 0 -> "normal";
+            case 1 -> "interval x2";
+            case 2 -> "interval x4, animations paused";
+            default -> "interval x8, animations paused, per-player refreshes skipped";
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.sennecools.tablist;
+
+/**
+ * The placeholders understood by header/footer templates.
+ * {@code #N} (new line) is not listed here; it is folded into literal text when a template is compiled.
+ */
+public enum Placeholder {
+    SERVERNAME("#SERVERNAME", Scope.GLOBAL, Source.CONFIG),
+    TPS("#TPS", Scope.GLOBAL, Source.TICK_TIME),
+    CTPS("#CTPS", Scope.GLOBAL, Source.TICK_TIME),
+    MSPT("#MSPT", Scope.GLOBAL, Source.TICK_TIME),
+    PLAYERCOUNT("#PLAYERCOUNT", Scope.GLOBAL, Source.PLAYER_LIST),
+    MAXPLAYERS("#MAXPLAYERS", Scope.GLOBAL, Source.PLAYER_LIST),
+    PLAYERNAME("#PLAYERNAME", Scope.PLAYER, Source.NAME),
+    PING("#PING", Scope.PLAYER, Source.PING),
+    RANK("#RANK", Scope.PLAYER, Source.RANK),
+    AFK("#AFK", Scope.PLAYER, Source.AFK),
+    WORLD("#WORLD", Scope.WORLD, Source.WORLD),
+    MEMORY("#MEMORY", Scope.GLOBAL, Source.MEMORY),
+    UPTIME("#UPTIME", Scope.GLOBAL, Source.UPTIME),
+    DATE("#DATE", Scope.GLOBAL, Source.CLOCK),
+    TIME("#TIME", Scope.GLOBAL, Source.CLOCK),
+    TABLOAD("#TABLOAD", Scope.GLOBAL, Source.LOAD);
+
+    /**
+     * How widely a resolved value can be shared, narrowest sharing first, so a template's scope is the max.
+     */
+    public enum Scope {
+        /** Same for every viewer. */
+        GLOBAL,
+        /** Same for every viewer in the same dimension. */
+        WORLD,
+        /** Depends on the viewing player. */
+        PLAYER
+    }
+
+    /**
+     * What has to change for a placeholder's rendered value to change; watched by {@link DirtyTracker}.
+     */
+    public enum Source {
+        /** Only changes on config reload, which resets all tracking anyway. */
+        CONFIG(false),
+        /** Tick time, as TPS and MSPT are shown. */
+        TICK_TIME(false),
+        /** Online and maximum player count. */
+        PLAYER_LIST(false),
+        /** Used memory, as shown (to 0.1 MB). */
+        MEMORY(false),
+        /** Server uptime; shown to the second, so it changes every second. */
+        UPTIME(false),
+        /** Wall clock, as the date and the time to the minute are shown. */
+        CLOCK(false),
+        /** The tab list's own load-shedding level. */
+        LOAD(false),
+        NAME(true),
+        PING(true),
+        RANK(true),
+        AFK(true),
+        WORLD(true);
+
+        private final boolean perPlayer;
+
+        Source(boolean perPlayer) {
+            this.perPlayer = perPlayer;
+        }
+
+        public boolean perPlayer() {
+            return perPlayer;
+        }
+
+        public int mask() {
+            return 1 << ordinal();
+        }
+    }
+
+    private static final Placeholder[] VALUES = values();
+
+    private final String token;
+    private final Scope scope;
+    private final Source source;
+
+    Placeholder(String token, Scope scope, Source source) {
+        this.token = token;
+        this.scope = scope;
+        this.source = source;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public Scope scope() {
+        return scope;
+    }
+
+    public Source source() {
+        return source;
+    }
+
+    static Placeholder match(String text, int index) {
+        for (Placeholder placeholder : VALUES) {
+            if (text.startsWith(placeholder.token, index)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
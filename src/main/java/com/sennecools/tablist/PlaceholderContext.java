@@ -0,0 +1,120 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Server state captured once per update cycle, with renders shared between viewers as the scope allows.
+ */
+public final class PlaceholderContext {
+
+    private final ConfigSnapshot config;
+    private final double mspt;
+    private final int playerCount;
+    private final int maxPlayers;
+    private final int loadLevel;
+    private final String[] globalValues = new String[Placeholder.values().length];
+    private final String[] convertedGlobalValues = new String[Placeholder.values().length];
+    private final Map<TabListTemplate, String> sharedRenders = new IdentityHashMap<>();
+    private final Map<ResourceKey<Level>, Map<TabListTemplate, String>> worldRenders = new HashMap<>();
+
+    public PlaceholderContext(MinecraftServer server, ConfigSnapshot config, int loadLevel) {
+        this.config = config;
+        this.mspt = server.getAverageTickTimeNanos() / 1_000_000.0;
+        this.playerCount = server.getPlayerList().getPlayerCount();
+        this.maxPlayers = server.getMaxPlayers();
+        this.loadLevel = loadLevel;
+    }
+
+    private PlaceholderContext(ConfigSnapshot config) {
+        this.config = config;
+        this.mspt = 0;
+        this.playerCount = 0;
+        this.maxPlayers = 0;
+        this.loadLevel = 0;
+    }
+
+    /**
+     * A context without server state, for precomputing templates that only use config values.
+     */
+    public static PlaceholderContext forConfig(ConfigSnapshot config) {
+        return new PlaceholderContext(config);
+    }
+
+    public ConfigSnapshot config() {
+        return config;
+    }
+
+    public double mspt() {
+        return mspt;
+    }
+
+    public int playerCount() {
+        return playerCount;
+    }
+
+    public int maxPlayers() {
+        return maxPlayers;
+    }
+
+    public int loadLevel() {
+        return loadLevel;
+    }
+
+    /**
+     * Renders {@code template} for {@code viewer}, reusing an earlier result when the template's scope allows.
+     */
+    public String render(TabListTemplate template, ViewerSnapshot viewer) {
+        return switch (template.scope()) {
+            case GLOBAL -> sharedRenders.computeIfAbsent(template, t -> t.render(this, viewer));
+            case WORLD -> worldRenders
+                    .computeIfAbsent(viewer.dimension(), key -> new IdentityHashMap<>())
+                    .computeIfAbsent(template, t -> t.render(this, viewer));
+            case PLAYER -> template.render(this, viewer);
+        };
+    }
+
+    String resolve(Placeholder placeholder, ViewerSnapshot viewer) {
+        if (placeholder.scope() != Placeholder.Scope.GLOBAL) {
+            return TabListVariables.resolvePlaceholder(placeholder, this, viewer);
+        }
+
+        int index = placeholder.ordinal();
+        String value = globalValues[index];
+        if (value == null) {
+            value = TabListVariables.resolvePlaceholder(placeholder, this, viewer);
+            globalValues[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Converts the color codes in a value returned by {@link #resolve}, once per cycle for global placeholders.
+     */
+    String convert(Placeholder placeholder, String value) {
+        if (placeholder.scope() != Placeholder.Scope.GLOBAL) {
+            return convertIfNeeded(value);
+        }
+
+        int index = placeholder.ordinal();
+        String converted = convertedGlobalValues[index];
+        if (converted == null) {
+            converted = convertIfNeeded(value);
+            convertedGlobalValues[index] = converted;
+        }
+        return converted;
+    }
+
+    private static String convertIfNeeded(String value) {
+        if (value.indexOf('&') >= 0 || value.indexOf('<') >= 0) {
+            return TabListVariables.convertColorCodes(value);
+        }
+        return value;
+    }
+}
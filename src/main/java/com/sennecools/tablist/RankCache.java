@@ -0,0 +1,65 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.TabListConfig;
+import com.sennecools.tablist.platform.Services;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player FTB Ranks data, looked up once per update cycle.
+ */
+public final class RankCache {
+
+    public static final RankInfo NONE = new RankInfo(0, "", null);
+
+    private static final Map<UUID, RankInfo> CACHE = new ConcurrentHashMap<>();
+
+    private RankCache() {
+    }
+
+    /**
+     * Re-reads rank data for the given players; players that left are dropped on logout.
+     */
+    public static void refresh(List<ServerPlayer> players) {
+        if (!isFTBRanksLoaded()) {
+            CACHE.clear();
+            return;
+        }
+        for (ServerPlayer player : players) {
+            CACHE.put(player.getUUID(), lookup(player));
+        }
+    }
+
+    /**
+     * Returns the cached rank data, looking it up if the player has not been seen this session.
+     */
+    public static RankInfo get(ServerPlayer player) {
+        if (!isFTBRanksLoaded()) {
+            return NONE;
+        }
+        return CACHE.computeIfAbsent(player.getUUID(), uuid -> lookup(player));
+    }
+
+    public static void remove(UUID uuid) {
+        CACHE.remove(uuid);
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static RankInfo lookup(ServerPlayer player) {
+        return FTBRanksIntegration.getRankInfo(player, TabListConfig.get().enableFTBRanksFormatting());
+    }
+
+    private static boolean isFTBRanksLoaded() {
+        return Services.PLATFORM.isModLoaded("ftbranks");
+    }
+
+    public record RankInfo(int power, String rankName, String formattedName) {
+    }
+}
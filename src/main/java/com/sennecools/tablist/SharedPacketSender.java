@@ -0,0 +1,31 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.platform.Services;
+import io.netty.channel.Channel;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+
+/**
+ * Sends one packet object to many players through {@code connection.send}, and checks for backlogged channels.
+ */
+final class SharedPacketSender {
+
+    private SharedPacketSender() {
+    }
+
+    static void send(Packet<?> packet, List<ServerPlayer> players) {
+        for (ServerPlayer player : players) {
+            player.connection.send(packet);
+        }
+    }
+
+    /**
+     * Whether the player's channel is below its high water mark, that is whether the client is keeping up.
+     */
+    static boolean isWritable(ServerPlayer player) {
+        Channel channel = Services.PLATFORM.getConnection(player).channel();
+        return channel == null || channel.isWritable();
+    }
+}
@@ -0,0 +1,224 @@
+package com.sennecools.tablist;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.scores.PlayerTeam;
+import net.minecraft.world.scores.Scoreboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps sorted players in one {@code tl_} scoreboard team each, with gaps between slots so a change only moves one team.
+ */
+public class SortedTeamIndex {
+
+    static final String TEAM_PREFIX = "tl_";
+
+    private static final long MAX_SLOT = 9_999_999_999L;
+    private static final int SLOT_DIGITS = 10;
+    private static final long DEFAULT_SPACING = 1_000_000L;
+
+    private final TreeMap<SortKey, Entry> order = new TreeMap<>();
+    private final Map<UUID, Entry> byPlayer = new HashMap<>();
+    private int cycle = 0;
+
+    /**
+     * Brings the index and the scoreboard in line with the current players.
+     */
+    public void sync(Scoreboard scoreboard, List<ServerPlayer> players, boolean byRank) {
+        List<Member> members = new ArrayList<>(players.size());
+        for (ServerPlayer player : players) {
+            int power = byRank ? TabListVariables.getPlayerRankPower(player) : 0;
+            members.add(new Member(player.getUUID(), TabListVariables.getProfileName(player), power));
+        }
+        syncMembers(scoreboard, members);
+    }
+
+    void syncMembers(Scoreboard scoreboard, List<Member> members) {
+        cycle++;
+        for (Member member : members) {
+            String name = member.name();
+            PlayerTeam currentTeam = scoreboard.getPlayersTeam(name);
+            Entry entry = byPlayer.get(member.uuid());
+
+            // Players placed in another plugin's or an operator's team are left alone
+            if (currentTeam != null && !currentTeam.getName().startsWith(TEAM_PREFIX)) {
+                if (entry != null) {
+                    removeEntry(scoreboard, entry);
+                }
+                continue;
+            }
+
+            SortKey key = new SortKey(member.power(), name, member.uuid());
+
+            if (entry == null || !entry.key.equals(key)) {
+                if (entry != null) {
+                    removeEntry(scoreboard, entry);
+                }
+                entry = insert(scoreboard, key);
+            } else if (currentTeam == null || !currentTeam.getName().equals(entry.teamName)) {
+                joinTeam(scoreboard, entry);
+            }
+            entry.seenCycle = cycle;
+        }
+
+        // Players that left without a logout event (or were skipped above) drop out of the index
+        Iterator<Entry> iterator = byPlayer.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.seenCycle != cycle) {
+                iterator.remove();
+                order.remove(entry.key);
+                leaveTeam(scoreboard, entry);
+            }
+        }
+    }
+
+    public void remove(Scoreboard scoreboard, UUID uuid) {
+        Entry entry = byPlayer.get(uuid);
+        if (entry != null) {
+            removeEntry(scoreboard, entry);
+        }
+    }
+
+    /**
+     * Forgets every entry and removes all {@code tl_} teams, including leftovers from an earlier run.
+     */
+    public void clear(Scoreboard scoreboard) {
+        order.clear();
+        byPlayer.clear();
+        for (PlayerTeam team : List.copyOf(scoreboard.getPlayerTeams())) {
+            if (team.getName().startsWith(TEAM_PREFIX)) {
+                scoreboard.removePlayerTeam(team);
+            }
+        }
+    }
+
+    private Entry insert(Scoreboard scoreboard, SortKey key) {
+        Entry entry = new Entry(key);
+        Map.Entry<SortKey, Entry> lower = order.lowerEntry(key);
+        Map.Entry<SortKey, Entry> higher = order.higherEntry(key);
+        long low = lower != null ? lower.getValue().slot : -1;
+        long high = higher != null ? higher.getValue().slot : MAX_SLOT + 1;
+
+        order.put(key, entry);
+        byPlayer.put(key.uuid(), entry);
+
+        if (high - low < 2) {
+            respace(scoreboard);
+            return entry;
+        }
+        if (higher == null) {
+            entry.slot = Math.min(low + DEFAULT_SPACING, low + (high - low) / 2);
+        } else if (lower == null) {
+            entry.slot = Math.max(high - DEFAULT_SPACING, low + (high - low) / 2);
+        } else {
+            entry.slot = low + (high - low) / 2;
+        }
+        entry.teamName = teamName(entry.slot);
+        joinTeam(scoreboard, entry);
+        return entry;
+    }
+
+    private void respace(Scoreboard scoreboard) {
+        long spacing = Math.min(DEFAULT_SPACING, (MAX_SLOT + 1) / (order.size() + 1));
+        long slot = 0;
+        for (Entry entry : order.values()) {
+            slot += spacing;
+            entry.slot = slot;
+            entry.teamName = teamName(slot);
+            joinTeam(scoreboard, entry);
+        }
+    }
+
+    private void removeEntry(Scoreboard scoreboard, Entry entry) {
+        order.remove(entry.key);
+        byPlayer.remove(entry.key.uuid());
+        leaveTeam(scoreboard, entry);
+    }
+
+    private static void joinTeam(Scoreboard scoreboard, Entry entry) {
+        String name = entry.key.name();
+        PlayerTeam current = scoreboard.getPlayersTeam(name);
+        if (current != null && current.getName().equals(entry.teamName)) {
+            return;
+        }
+        if (current != null) {
+            scoreboard.removePlayerFromTeam(name, current);
+            if (current.getName().startsWith(TEAM_PREFIX) && current.getPlayers().isEmpty()) {
+                scoreboard.removePlayerTeam(current);
+            }
+        }
+
+        PlayerTeam team = scoreboard.getPlayerTeam(entry.teamName);
+        if (team == null) {
+            team = scoreboard.addPlayerTeam(entry.teamName);
+            team.setNameTagVisibility(PlayerTeam.Visibility.ALWAYS);
+            team.setPlayerPrefix(Component.empty());
+            team.setPlayerSuffix(Component.empty());
+        }
+        scoreboard.addPlayerToTeam(name, team);
+    }
+
+    private static void leaveTeam(Scoreboard scoreboard, Entry entry) {
+        if (entry.teamName == null) {
+            return;
+        }
+        PlayerTeam team = scoreboard.getPlayerTeam(entry.teamName);
+        if (team == null) {
+            return;
+        }
+        String name = entry.key.name();
+        if (team.getPlayers().contains(name)) {
+            scoreboard.removePlayerFromTeam(name, team);
+        }
+        if (team.getPlayers().isEmpty()) {
+            scoreboard.removePlayerTeam(team);
+        }
+    }
+
+    private static String teamName(long slot) {
+        String digits = Long.toString(slot);
+        StringBuilder name = new StringBuilder(TEAM_PREFIX.length() + SLOT_DIGITS).append(TEAM_PREFIX);
+        for (int i = digits.length(); i < SLOT_DIGITS; i++) {
+            name.append('0');
+        }
+        return name.append(digits).toString();
+    }
+
+    record Member(UUID uuid, String name, int power) {
+    }
+
+    /**
+     * Highest rank power first, then case-insensitive name; the UUID only breaks exact ties.
+     */
+    private record SortKey(int power, String name, UUID uuid) implements Comparable<SortKey> {
+        @Override
+        public int compareTo(SortKey other) {
+            int result = Integer.compare(other.power, power);
+            if (result != 0) return result;
+            result = String.CASE_INSENSITIVE_ORDER.compare(name, other.name);
+            if (result != 0) return result;
+            result = name.compareTo(other.name);
+            if (result != 0) return result;
+            return uuid.compareTo(other.uuid);
+        }
+    }
+
+    private static final class Entry {
+        private final SortKey key;
+        private long slot;
+        private String teamName;
+        private int seenCycle;
+
+        private Entry(SortKey key) {
+            this.key = key;
+        }
+    }
+}
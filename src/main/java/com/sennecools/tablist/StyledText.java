@@ -0,0 +1,197 @@
+package com.sennecools.tablist;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Text split into runs of one {@link Style} each; adjacent text with an equal style shares a run.
+ */
+final class StyledText {
+
+    private static final StyledText EMPTY = new StyledText("", new int[0], new Style[0]);
+
+    // Gradients can produce many distinct styles; the interner is simply reset when it grows past this
+    private static final int MAX_INTERNED_STYLES = 4096;
+    private static final Map<Style, Style> INTERNED = new ConcurrentHashMap<>();
+    private static final Style[] COLOR_STYLES = new Style[16];
+
+    static {
+        ChatFormatting[] values = ChatFormatting.values();
+        for (ChatFormatting formatting : values) {
+            if (formatting.isColor()) {
+                COLOR_STYLES[formatting.getId()] = intern(Style.EMPTY.withColor(formatting));
+            }
+        }
+    }
+
+    private final String text;
+    private final int[] runEnds;
+    private final Style[] styles;
+
+    private StyledText(String text, int[] runEnds, Style[] styles) {
+        this.text = text;
+        this.runEnds = runEnds;
+        this.styles = styles;
+    }
+
+    /**
+     * Parses legacy {@code §} color codes; a {@code §} that starts no valid code is kept as text.
+     */
+    static StyledText parseLegacy(String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+
+        Builder builder = new Builder(text.length());
+        int length = text.length();
+        int plainStart = 0;
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) != '\u00A7' || i + 1 >= length) {
+                i++;
+                continue;
+            }
+            char code = text.charAt(i + 1);
+            int consumed = 0;
+            if ((code == 'x' || code == 'X') && i + 13 < length) {
+                int rgb = parseLegacyHex(text, i + 2);
+                if (rgb >= 0) {
+                    builder.append(text, plainStart, i);
+                    builder.style(builder.style().withColor(TextColor.fromRgb(rgb)));
+                    consumed = 14;
+                }
+            }
+            if (consumed == 0) {
+                ChatFormatting formatting = ChatFormatting.getByCode(code);
+                if (formatting != null) {
+                    builder.append(text, plainStart, i);
+                    builder.style(applyCode(builder.style(), formatting));
+                    consumed = 2;
+                }
+            }
+            if (consumed == 0) {
+                i++;
+                continue;
+            }
+            i += consumed;
+            plainStart = i;
+        }
+        builder.append(text, plainStart, length);
+        return builder.build();
+    }
+
+    Component toComponent() {
+        if (styles.length == 0) {
+            return Component.empty();
+        }
+        if (styles.length == 1) {
+            return Component.literal(text).setStyle(styles[0]);
+        }
+        MutableComponent root = Component.empty();
+        int start = 0;
+        for (int run = 0; run < styles.length; run++) {
+            root.append(Component.literal(text.substring(start, runEnds[run])).setStyle(styles[run]));
+            start = runEnds[run];
+        }
+        return root;
+    }
+
+    private static Style intern(Style style) {
+        Style existing = INTERNED.get(style);
+        if (existing != null) {
+            return existing;
+        }
+        if (INTERNED.size() >= MAX_INTERNED_STYLES) {
+            INTERNED.clear();
+        }
+        existing = INTERNED.putIfAbsent(style, style);
+        return existing != null ? existing : style;
+    }
+
+    private static Style applyCode(Style style, ChatFormatting formatting) {
+        if (formatting.isColor()) {
+            // Reset formatting modifiers when applying a new color
+            return COLOR_STYLES[formatting.getId()];
+        }
+        return switch (formatting) {
+            case RESET -> Style.EMPTY;
+            case BOLD -> style.withBold(true);
+            case ITALIC -> style.withItalic(true);
+            case UNDERLINE -> style.withUnderlined(true);
+            case STRIKETHROUGH -> style.withStrikethrough(true);
+            case OBFUSCATED -> style.withObfuscated(true);
+            default -> style;
+        };
+    }
+
+    /**
+     * Reads {@code §R§R§G§G§B§B} starting at {@code index}, or returns -1 if it is not one.
+     */
+    private static int parseLegacyHex(String text, int index) {
+        int rgb = 0;
+        for (int j = 0; j < 6; j++) {
+            int position = index + j * 2;
+            if (text.charAt(position) != '\u00A7') {
+                return -1;
+            }
+            char c = text.charAt(position + 1);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!hex) {
+                return -1;
+            }
+            rgb = (rgb << 4) | Character.digit(c, 16);
+        }
+        return rgb;
+    }
+
+    private static final class Builder {
+
+        private final StringBuilder text;
+        private int[] runEnds = new int[8];
+        private Style[] styles = new Style[8];
+        private int runs = 0;
+        private Style style = Style.EMPTY;
+
+        Builder(int capacity) {
+            this.text = new StringBuilder(capacity);
+        }
+
+        Style style() {
+            return style;
+        }
+
+        void style(Style style) {
+            this.style = intern(style);
+        }
+
+        void append(CharSequence chars, int start, int end) {
+            if (end <= start) {
+                return;
+            }
+            Style last = runs > 0 ? styles[runs - 1] : null;
+            if (last != style && !style.equals(last)) {
+                if (runs == styles.length) {
+                    runEnds = Arrays.copyOf(runEnds, runs * 2);
+                    styles = Arrays.copyOf(styles, runs * 2);
+                }
+                styles[runs++] = style;
+            }
+            text.append(chars, start, end);
+            runEnds[runs - 1] = text.length();
+        }
+
+        StyledText build() {
+            if (runs == 0) {
+                return EMPTY;
+            }
+            return new StyledText(text.toString(), Arrays.copyOf(runEnds, runs), Arrays.copyOf(styles, runs));
+        }
+    }
+}
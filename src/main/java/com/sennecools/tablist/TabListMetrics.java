@@ -0,0 +1,186 @@
+package com.sennecools.tablist;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.game.ClientboundTabListPacket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and log-linear latency histograms behind {@code /tablist stats}.
+ */
+final class TabListMetrics {
+
+    enum Phase {
+        TICK("Tick"),
+        SORT("Sorting"),
+        RENDER("Render + send"),
+        PARSE("Component parse");
+
+        private final String label;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    static final LongAdder PACKETS_SENT = new LongAdder();
+    static final LongAdder PACKETS_SKIPPED = new LongAdder();
+    static final LongAdder BYTES_SENT = new LongAdder();
+    static final LongAdder PACKETS_MEASURED = new LongAdder();
+    static final LongAdder PREBUILT_SENT = new LongAdder();
+    static final LongAdder PACKETS_DEFERRED = new LongAdder();
+
+    private static volatile long sinceNanos = System.nanoTime();
+
+    private TabListMetrics() {
+    }
+
+    static void record(Phase phase, long startNanos) {
+        phase.histogram.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the encoded size of the packet in bytes, or 0 if it cannot be encoded here.
+     */
+    static int encodedSize(ClientboundTabListPacket packet, RegistryAccess registries) {
+        return encodedSize(ClientboundTabListPacket.STREAM_CODEC, packet, registries);
+    }
+
+    static <T> int encodedSize(StreamCodec<? super RegistryFriendlyByteBuf, T> codec, T value,
+                               RegistryAccess registries) {
+        RegistryFriendlyByteBuf buffer = new RegistryFriendlyByteBuf(Unpooled.buffer(), registries);
+        try {
+            codec.encode(buffer, value);
+            return buffer.readableBytes();
+        } catch (RuntimeException e) {
+            return 0;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    static void reset() {
+        for (Phase phase : Phase.values()) {
+            phase.histogram.reset();
+        }
+        PACKETS_SENT.reset();
+        PACKETS_SKIPPED.reset();
+        BYTES_SENT.reset();
+        PACKETS_MEASURED.reset();
+        PREBUILT_SENT.reset();
+        PACKETS_DEFERRED.reset();
+        GradientCache.EXPANSION_HITS.reset();
+        GradientCache.EXPANSION_MISSES.reset();
+        GradientCache.RAMP_HITS.reset();
+        GradientCache.RAMP_MISSES.reset();
+        sinceNanos = System.nanoTime();
+    }
+
+    static List<String> report() {
+        double seconds = Math.max(1e-3, (System.nanoTime() - sinceNanos) / 1e9);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("\u00A76TabList stats \u00A77(last %.0f s)", seconds));
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = phase.histogram;
+            long count = histogram.count();
+            if (count == 0) {
+                lines.add("\u00A77" + phase.label + ": \u00A7fno samples");
+                continue;
+            }
+            lines.add(String.format("\u00A77%s: \u00A7fp50 %s, p99 %s, max %s \u00A77(%d samples)", phase.label,
+                    formatNanos(histogram.percentile(0.50)), formatNanos(histogram.percentile(0.99)),
+                    formatNanos(histogram.percentile(1.0)), count));
+        }
+        long sent = PACKETS_SENT.sum();
+        lines.add(String.format("\u00A77Packets: \u00A7f%.1f/s sent \u00A77(%d, %d prebuilt), \u00A7f%.1f/s skipped unchanged",
+                sent / seconds, sent, PREBUILT_SENT.sum(), PACKETS_SKIPPED.sum() / seconds));
+        lines.add(String.format("\u00A77Deferred: \u00A7f%.1f/s \u00A77for backlogged connections (%d)",
+                PACKETS_DEFERRED.sum() / seconds, PACKETS_DEFERRED.sum()));
+        lines.add(String.format("\u00A77Bytes sent: \u00A7f%.1f KB/s \u00A77(%d bytes over %d of %d packets; prebuilt only)",
+                BYTES_SENT.sum() / seconds / 1024, BYTES_SENT.sum(), PACKETS_MEASURED.sum(), sent));
+        lines.add(String.format("\u00A77Gradient cache: \u00A7f%s \u00A77expansion hits, \u00A7f%s \u00A77ramp hits",
+                hitRate(GradientCache.EXPANSION_HITS, GradientCache.EXPANSION_MISSES),
+                hitRate(GradientCache.RAMP_HITS, GradientCache.RAMP_MISSES)));
+        return lines;
+    }
+
+    private static String hitRate(LongAdder hits, LongAdder misses) {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? "n/a" : String.format("%.1f%%", hit * 100.0 / total);
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.1f \u00B5s", nanos / 1_000.0);
+        }
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Counts per log-linear bucket, four per power of two.
+     */
+    private static final class LatencyHistogram {
+
+        private static final int SUB_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+
+        void record(long nanos) {
+            buckets.incrementAndGet(indexOf(Math.max(0, nanos)));
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        long percentile(double quantile) {
+            long count = count();
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+            int sub = index % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.sennecools.tablist;
+
+import net.minecraft.network.chat.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A header/footer template compiled once into literal and placeholder tokens.
+ */
+public final class TabListTemplate {
+
+    public static final TabListTemplate EMPTY =
+            new TabListTemplate(new Token[0], Placeholder.Scope.GLOBAL, 0, 0, false, "", Component.empty());
+
+    private static final Pattern DURATION_PATTERN = Pattern.compile("<duration:(\\d{1,7})>");
+    private static final int MIN_DURATION_MS = 50;
+
+    // Stands in for a placeholder while looking for gradient spans; Private Use Area, never in config text.
+    private static final char PLACEHOLDER_MARK = '\uE000';
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final Token[] tokens;
+    private final Placeholder.Scope scope;
+    private final int sources;
+    private final int durationMs;
+    // Set when literal text ends partway through a code or tag, so it can only be converted as a whole
+    private final boolean convertWhole;
+    private final String staticText;
+    private final Component staticComponent;
+
+    private TabListTemplate(List<Token> tokens, Placeholder.Scope scope, int sources, int durationMs,
+                            boolean convertWhole) {
+        this(tokens.toArray(new Token[0]), scope, sources, durationMs, convertWhole, null, null);
+    }
+
+    private TabListTemplate(Token[] tokens, Placeholder.Scope scope, int sources, int durationMs,
+                            boolean convertWhole, String staticText, Component staticComponent) {
+        this.tokens = tokens;
+        this.scope = scope;
+        this.sources = sources;
+        this.durationMs = durationMs;
+        this.convertWhole = convertWhole;
+        this.staticText = staticText;
+        this.staticComponent = staticComponent;
+    }
+
+    public static TabListTemplate compile(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+
+        int durationMs = 0;
+        Matcher durationMatcher = DURATION_PATTERN.matcher(template);
+        if (durationMatcher.lookingAt()) {
+            durationMs = Math.max(MIN_DURATION_MS, Integer.parseInt(durationMatcher.group(1)));
+            template = template.substring(durationMatcher.end());
+        }
+
+        // Split into literal text (with #N already expanded) and placeholders
+        List<Object> parts = new ArrayList<>();
+        Placeholder.Scope scope = Placeholder.Scope.GLOBAL;
+        int sources = 0;
+        StringBuilder literal = new StringBuilder();
+        StringBuilder marked = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '#') {
+                Placeholder placeholder = Placeholder.match(template, i);
+                if (placeholder != null) {
+                    if (literal.length() > 0) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(placeholder);
+                    if (placeholder.scope().compareTo(scope) > 0) {
+                        scope = placeholder.scope();
+                    }
+                    sources |= placeholder.source().mask();
+                    marked.append(PLACEHOLDER_MARK);
+                    i += placeholder.token().length();
+                    continue;
+                }
+                if (template.startsWith("#N", i)) {
+                    literal.append('\n');
+                    marked.append('\n');
+                    i += 2;
+                    continue;
+                }
+            }
+            literal.append(c);
+            marked.append(c);
+            i++;
+        }
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+        }
+
+        boolean[] dynamic = findDynamicGradients(marked.toString());
+        boolean convertWhole = dynamic == null;
+        if (convertWhole) {
+            dynamic = new boolean[marked.length()];
+        }
+
+        List<Token> tokens = new ArrayList<>();
+        List<Token> dynamicTokens = null;
+        int position = 0;
+        for (Object part : parts) {
+            if (part instanceof Placeholder placeholder) {
+                boolean inDynamic = dynamic[position];
+                dynamicTokens = flushDynamic(tokens, dynamicTokens, inDynamic);
+                (inDynamic ? dynamicTokens : tokens).add(new Variable(placeholder));
+                position++;
+                continue;
+            }
+
+            // Literal text may straddle the edge of a dynamic gradient span, so split it there
+            String text = (String) part;
+            int start = 0;
+            while (start < text.length()) {
+                boolean inDynamic = dynamic[position + start];
+                int end = start + 1;
+                while (end < text.length() && dynamic[position + end] == inDynamic) {
+                    end++;
+                }
+                String chunk = text.substring(start, end);
+                dynamicTokens = flushDynamic(tokens, dynamicTokens, inDynamic);
+                (inDynamic ? dynamicTokens : tokens).add(Literal.of(chunk));
+                start = end;
+            }
+            position += text.length();
+        }
+        flushDynamic(tokens, dynamicTokens, false);
+
+        if (tokens.isEmpty() && durationMs == 0) {
+            return EMPTY;
+        }
+        for (int t = 0; t < tokens.size() - 1; t++) {
+            if (tokens.get(t) instanceof Literal chunk && chunk.open()) {
+                convertWhole = true;
+            }
+        }
+        return new TabListTemplate(tokens, scope, sources, durationMs, convertWhole);
+    }
+
+    /**
+     * Renders a static template once up front; returns this template otherwise.
+     */
+    public TabListTemplate precompute(PlaceholderContext context) {
+        if (!isStatic() || staticText != null) {
+            return this;
+        }
+        String text = render(context, null);
+        return new TabListTemplate(tokens, scope, sources, durationMs, convertWhole, text,
+                TabListVariables.parseColoredText(text));
+    }
+
+    public Placeholder.Scope scope() {
+        return scope;
+    }
+
+    public int sources() {
+        return sources;
+    }
+
+    /**
+     * Frame duration in milliseconds, or 0 to advance every {@code animation_interval} cycles.
+     */
+    public int durationMs() {
+        return durationMs;
+    }
+
+    public boolean isStatic() {
+        return (sources & ~Placeholder.Source.CONFIG.mask()) == 0;
+    }
+
+    public String staticText() {
+        return staticText;
+    }
+
+    public Component staticComponent() {
+        return staticComponent;
+    }
+
+    /**
+     * Renders this template for one viewer; prefer {@link PlaceholderContext#render}.
+     */
+    public String render(PlaceholderContext context, ViewerSnapshot viewer) {
+        if (staticText != null) {
+            return staticText;
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        if (!convertWhole && appendConverted(out, context, viewer)) {
+            return out.toString();
+        }
+        // A code or tag spans a placeholder, so convert the text the way it reads as a whole
+        out.setLength(0);
+        for (Token token : tokens) {
+            token.appendRaw(out, context, viewer);
+        }
+        return TabListVariables.convertColorCodes(out.toString());
+    }
+
+    private boolean appendConverted(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer) {
+        for (int t = 0; t < tokens.length; t++) {
+            if (!tokens[t].appendTo(out, context, viewer, t == tokens.length - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the gradient spans that wrap a placeholder; those are expanded after it is resolved. Returns null if
+     * spans overlap or nest, since only whole-text conversion reproduces how those expand.
+     */
+    private static boolean[] findDynamicGradients(String marked) {
+        boolean[] dynamic = new boolean[marked.length()];
+        if (marked.indexOf('<') < 0 || marked.indexOf(PLACEHOLDER_MARK) < 0) {
+            return dynamic;
+        }
+
+        List<int[]> spans = new ArrayList<>();
+        for (Pattern pattern : List.of(TabListVariables.GRADIENT_MINIMESSAGE_PATTERN, TabListVariables.GRADIENT_TAB_PATTERN)) {
+            Matcher matcher = pattern.matcher(marked);
+            while (matcher.find()) {
+                if (marked.indexOf('<', matcher.start(2)) < matcher.end(2)) {
+                    return null;
+                }
+                spans.add(new int[]{matcher.start(), matcher.end()});
+            }
+        }
+        spans.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int previousEnd = 0;
+        for (int[] span : spans) {
+            if (span[0] < previousEnd) {
+                return null;
+            }
+            previousEnd = span[1];
+            if (marked.substring(span[0], span[1]).indexOf(PLACEHOLDER_MARK) >= 0) {
+                Arrays.fill(dynamic, span[0], span[1], true);
+            }
+        }
+        return dynamic;
+    }
+
+    private static List<Token> flushDynamic(List<Token> tokens, List<Token> dynamicTokens, boolean stillDynamic) {
+        if (stillDynamic) {
+            return dynamicTokens != null ? dynamicTokens : new ArrayList<>();
+        }
+        if (dynamicTokens != null && !dynamicTokens.isEmpty()) {
+            tokens.add(new Dynamic(dynamicTokens.toArray(new Token[0])));
+        }
+        return null;
+    }
+
+    private interface Token {
+        /**
+         * Appends the converted text; returns false if it may combine with the text around it, unless {@code last}.
+         */
+        boolean appendTo(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer, boolean last);
+
+        /**
+         * Appends the text before color conversion; returns false if a value may reshape a gradient span.
+         */
+        boolean appendRaw(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer);
+    }
+
+    private record Literal(String raw, String text, boolean open) implements Token {
+        static Literal of(String raw) {
+            String text = TabListVariables.convertColorCodes(raw);
+            boolean open = ColorCodeLexer.endsWithTokenPrefix(raw, raw.length())
+                    || ColorCodeLexer.endsWithTokenPrefix(text, text.length())
+                    || raw.lastIndexOf('<') > raw.lastIndexOf('>');
+            return new Literal(raw, text, open);
+        }
+
+        @Override
+        public boolean appendTo(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer, boolean last) {
+            out.append(text);
+            return last || !open;
+        }
+
+        @Override
+        public boolean appendRaw(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer) {
+            out.append(raw);
+            return true;
+        }
+    }
+
+    private record Variable(Placeholder placeholder) implements Token {
+        @Override
+        public boolean appendTo(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer, boolean last) {
+            String value = context.resolve(placeholder, viewer);
+            if (!isolated(value)) {
+                return false;
+            }
+            out.append(context.convert(placeholder, value));
+            return last || !ColorCodeLexer.endsWithTokenPrefix(value, value.length());
+        }
+
+        @Override
+        public boolean appendRaw(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer) {
+            String value = context.resolve(placeholder, viewer);
+            out.append(value);
+            return isolated(value);
+        }
+
+        private static boolean isolated(String value) {
+            return value.indexOf('<') < 0 && value.indexOf('\n') < 0;
+        }
+    }
+
+    private record Dynamic(Token[] raw) implements Token {
+        @Override
+        public boolean appendTo(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer, boolean last) {
+            StringBuilder span = new StringBuilder();
+            if (!appendRaw(span, context, viewer)) {
+                return false;
+            }
+            String converted = TabListVariables.convertColorCodes(span.toString());
+            out.append(converted);
+            return last || !ColorCodeLexer.endsWithTokenPrefix(converted, converted.length());
+        }
+
+        @Override
+        public boolean appendRaw(StringBuilder out, PlaceholderContext context, ViewerSnapshot viewer) {
+            boolean isolated = true;
+            for (Token token : raw) {
+                isolated &= token.appendRaw(out, context, viewer);
+            }
+            return isolated;
+        }
+    }
+}
@@ -1,51 +1,58 @@
 package com.sennecools.tablist;
 
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.sennecools.tablist.config.ConfigSnapshot;
+import com.sennecools.tablist.config.ConfigWatcher;
 import com.sennecools.tablist.config.TabListConfig;
 import com.sennecools.tablist.platform.Services;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ClientboundTabListPacket;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.scores.PlayerTeam;
 import net.minecraft.world.scores.Scoreboard;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class TabListUpdater {
 
     public static TabListUpdater INSTANCE;
 
-    private static final String TEAM_PREFIX = "tl_";
-
-    private int ticksSinceLastUpdate = 0;
-    private final Map<UUID, String> lastSentContent = new ConcurrentHashMap<>();
+    private final UpdateScheduler scheduler = new UpdateScheduler();
+    private final LoadShedder loadShedder = new LoadShedder();
+    private final TabRenderPipeline renderPipeline = new TabRenderPipeline();
+    private final DisplayNameCache displayNames = new DisplayNameCache();
+    private final DisplayNameBacklog displayNameBacklog = new DisplayNameBacklog();
+    private final DirtyTracker dirtyTracker = new DirtyTracker();
     private String lastSortMode = null;
+    private final SortedTeamIndex sortedTeams = new SortedTeamIndex();
+
+    private final FrameCycler headerFrames = new FrameCycler();
+    private final FrameCycler footerFrames = new FrameCycler();
 
-    private int headerFrameIndex = 0;
-    private int footerFrameIndex = 0;
-    private int animationTickCounter = 0;
+    private final AfkTracker afkTracker = new AfkTracker();
 
-    private final Map<UUID, double[]> lastPlayerPositions = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastActivityTime = new ConcurrentHashMap<>();
+    // The snapshot the cached state was built from
+    private ConfigSnapshot appliedConfig = null;
+    private boolean suspended = false;
+    private final ConfigWatcher configWatcher = new ConfigWatcher();
 
     public TabListUpdater() {
         INSTANCE = this;
     }
 
     public void resetState() {
-        lastSentContent.clear();
-        headerFrameIndex = 0;
-        footerFrameIndex = 0;
-        animationTickCounter = 0;
-        ticksSinceLastUpdate = 0;
+        renderPipeline.clear();
+        displayNames.clear();
+        displayNameBacklog.clear();
+        dirtyTracker.clear();
+        RankCache.clear();
+        headerFrames.reset();
+        footerFrames.reset();
+        scheduler.reset();
+        loadShedder.reset();
         lastSortMode = null;
     }
 
@@ -58,238 +65,247 @@ public class TabListUpdater {
                 //?}
                 .then(Commands.literal("reload")
                         .executes(context -> {
-                            TabListConfig.load();
-                            resetState();
-                            context.getSource().sendSuccess(() -> Component.literal("\u00A7aTabList config reloaded."), true);
+                            // Parsed off-thread; the next tick picks it up
+                            CommandSourceStack source = context.getSource();
+                            MinecraftServer server = source.getServer();
+                            TabListConfig.reload(server).whenComplete((config, error) -> server.execute(() -> {
+                                if (error == null) {
+                                    source.sendSuccess(() -> Component.literal("\u00A7aTabList config reloaded."), true);
+                                } else {
+                                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                                    Constants.LOGGER.error("Failed to reload TabList config", cause);
+                                    source.sendFailure(Component.literal("TabList config could not be reloaded, keeping the previous settings: "
+                                            + cause.getMessage()));
+                                }
+                            }));
+                            return 1;
+                        })
+                )
+                .then(Commands.literal("stats")
+                        .executes(context -> {
+                            CommandSourceStack source = context.getSource();
+                            for (String line : TabListMetrics.report()) {
+                                source.sendSuccess(() -> Component.literal(line), false);
+                            }
+                            source.sendSuccess(() -> Component.literal(String.format(
+                                    "\u00A77Refresh rate: \u00A7f%.2f/s \u00A77per player (target %.2f/s)",
+                                    scheduler.achievedRate(), scheduler.targetRate())), false);
+                            double mspt = source.getServer().getAverageTickTimeNanos() / 1_000_000.0;
+                            source.sendSuccess(() -> Component.literal(String.format(
+                                    "\u00A77Load shedding: \u00A7flevel %d \u00A77(%s) at %.1f MSPT%s",
+                                    loadShedder.level(), LoadShedder.describe(loadShedder.level()), mspt,
+                                    TabListConfig.get().adaptiveEnabled() ? "" : ", disabled")), false);
                             return 1;
                         })
+                        .then(Commands.literal("reset")
+                                .executes(context -> {
+                                    TabListMetrics.reset();
+                                    context.getSource().sendSuccess(() -> Component.literal("\u00A7aTabList stats reset."), false);
+                                    return 1;
+                                })
+                        )
                 );
     }
 
     public void onServerTick(MinecraftServer server) {
-        if (server == null) {
+        if (server == null || suspended) {
             return;
         }
+        long start = System.nanoTime();
+        tick(server);
+        TabListMetrics.record(TabListMetrics.Phase.TICK, start);
+    }
 
-        ticksSinceLastUpdate++;
-        int updateIntervalTicks = TabListConfig.updateInterval / 50;
-        if (ticksSinceLastUpdate < updateIntervalTicks) {
-            return;
-        }
-        ticksSinceLastUpdate = 0;
-
-        animationTickCounter++;
-        if (animationTickCounter >= TabListConfig.animationInterval) {
-            animationTickCounter = 0;
-            List<String> headerFrames = TabListConfig.headerFrames;
-            List<String> footerFrames = TabListConfig.footerFrames;
-            if (headerFrames != null && headerFrames.size() > 1) {
-                headerFrameIndex = (headerFrameIndex + 1) % headerFrames.size();
+    private void tick(MinecraftServer server) {
+
+        ConfigSnapshot config = TabListConfig.get();
+        if (config != appliedConfig) {
+            if (!config.asyncRendering()) {
+                renderPipeline.shutdown();
             }
-            if (footerFrames != null && footerFrames.size() > 1) {
-                footerFrameIndex = (footerFrameIndex + 1) % footerFrames.size();
+            if (appliedConfig != null) {
+                resetState();
             }
+            appliedConfig = config;
+            renderPipeline.prebuild(config.headerTemplates(), config.footerTemplates(), server.registryAccess());
+            configWatcher.setEnabled(config.watchFile(), server);
         }
 
-        if (TabListConfig.afkEnabled) {
-            updateAFKTracking(server);
-        }
+        // Under load the interval is stretched and work is shed
+        long now = System.nanoTime();
+        loadShedder.update(config, server.getAverageTickTimeNanos() / 1_000_000.0, now);
 
-        updateSorting(server);
+        scheduler.configure(config.updateInterval(), loadShedder.intervalStretch());
+        scheduler.advance(now);
+        boolean newRound = scheduler.startsRound();
 
-        server.getPlayerList().getPlayers().forEach(this::refreshPlayerTab);
-    }
+        if (config.afkEnabled()) {
+            afkTracker.advance(server, server.getTickCount(), afkTimeoutTicks(config));
+        }
+
+        // Untimed frames advance with the round; a timed frame ends for everyone at once
+        boolean frameEnded = !loadShedder.animationsPaused()
+                && (headerFrames.advance(config.headerTemplates(), newRound, config.animationInterval(), now)
+                | footerFrames.advance(config.footerTemplates(), newRound, config.animationInterval(), now));
+
+        List<ServerPlayer> players = server.getPlayerList().getPlayers();
+        renderPipeline.flushDrained(server, config.asyncRendering());
+        displayNameBacklog.resync(server);
+        List<ServerPlayer> scheduled = scheduler.duePlayers(players);
+        RankCache.refresh(scheduled);
+        List<ServerPlayer> due = frameEnded ? players : scheduled;
+        if (newRound) {
+            long sortStart = System.nanoTime();
+            updateSorting(server, config);
+            TabListMetrics.record(TabListMetrics.Phase.SORT, sortStart);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
 
-    private void updateAFKTracking(MinecraftServer server) {
-        long now = System.currentTimeMillis();
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            UUID uuid = player.getUUID();
-            double x = player.getX();
-            double z = player.getZ();
-            double yRot = player.getYRot();
-
-            double[] lastPos = lastPlayerPositions.get(uuid);
-            if (lastPos == null || lastPos[0] != x || lastPos[1] != z || lastPos[2] != yRot) {
-                lastPlayerPositions.put(uuid, new double[]{x, z, yRot});
-                lastActivityTime.put(uuid, now);
-            } else if (!lastActivityTime.containsKey(uuid)) {
-                lastActivityTime.put(uuid, now);
+        PlaceholderContext context = new PlaceholderContext(server, config, loadShedder.level());
+        TabListTemplate header = headerFrames.current(config.headerTemplates());
+        TabListTemplate footer = footerFrames.current(config.footerTemplates());
+        dirtyTracker.sample(context, header.sources() | footer.sources());
+
+        // Only players whose inputs changed are rendered at all
+        boolean perPlayerChanges = loadShedder.perPlayerRefreshes();
+        List<ViewerSnapshot> viewers = new ArrayList<>();
+        List<ServerPlayer> renamed = new ArrayList<>();
+        for (ServerPlayer player : due) {
+            ViewerSnapshot viewer = ViewerSnapshot.capture(player);
+            if (dirtyTracker.isTabDirty(viewer, header, footer, perPlayerChanges)) {
+                viewers.add(viewer);
+            }
+            if (dirtyTracker.checkDisplayName(viewer)) {
+                trackDisplayName(player, renamed);
             }
         }
-    }
+        if (!viewers.isEmpty()
+                && renderPipeline.submit(server, context, header, footer, viewers, config.asyncRendering())) {
+            dirtyTracker.markRendered(viewers, header, footer);
+        }
 
-    public boolean isPlayerAFK(ServerPlayer player) {
-        if (!TabListConfig.afkEnabled) return false;
-        Long lastActive = lastActivityTime.get(player.getUUID());
-        if (lastActive == null) return false;
-        return (System.currentTimeMillis() - lastActive) >= TabListConfig.afkTimeout * 1000L;
+        if (!renamed.isEmpty()) {
+            Services.PLATFORM.refreshDisplayNames(server, renamed, displayNameBacklog.recipients(players));
+        }
     }
 
-    public void onPlayerChat(ServerPlayer player) {
-        if (player != null) {
-            lastActivityTime.put(player.getUUID(), System.currentTimeMillis());
-        }
+    private static int afkTimeoutTicks(ConfigSnapshot config) {
+        return config.afkTimeout() * 20;
     }
 
-    private void refreshPlayerTab(ServerPlayer player) {
-        List<String> headerFrames = TabListConfig.headerFrames;
-        List<String> footerFrames = TabListConfig.footerFrames;
-
-        String headerTemplate = (headerFrames != null && !headerFrames.isEmpty())
-                ? headerFrames.get(headerFrameIndex % headerFrames.size())
-                : "";
-        String footerTemplate = (footerFrames != null && !footerFrames.isEmpty())
-                ? footerFrames.get(footerFrameIndex % footerFrames.size())
-                : "";
-
-        String header = TabListVariables.tablistChars(headerTemplate, player);
-        String footer = TabListVariables.tablistChars(footerTemplate, player);
-
-        String combined = header + "\0" + footer;
-        String previous = lastSentContent.put(player.getUUID(), combined);
-        if (!combined.equals(previous)) {
-            ClientboundTabListPacket packet =
-                new ClientboundTabListPacket(
-                    TabListVariables.parseColoredText(header),
-                    TabListVariables.parseColoredText(footer)
-                );
-            player.connection.send(packet);
-        }
+    /**
+     * The current load-shedding level, 0 when running normally.
+     */
+    public int loadLevel() {
+        return loadShedder.level();
+    }
 
-        Services.PLATFORM.refreshDisplayName(player);
+    public boolean isPlayerAFK(ServerPlayer player) {
+        return TabListConfig.get().afkEnabled() && afkTracker.isAfk(player.getUUID());
     }
 
-    private void updateSorting(MinecraftServer server) {
-        String mode = TabListConfig.sortMode;
-        if (mode == null) {
-            mode = "NONE";
+    public void onPlayerLogin(ServerPlayer player) {
+        MinecraftServer server = serverOf(player);
+        if (server != null) {
+            afkTracker.track(player, server.getTickCount(), afkTimeoutTicks(TabListConfig.get()));
         }
-        mode = mode.toUpperCase();
-
-        Scoreboard scoreboard = server.getScoreboard();
+    }
 
-        if ("NONE".equals(mode)) {
-            if (lastSortMode != null && !"NONE".equals(lastSortMode)) {
-                removeAllTlTeams(scoreboard);
-            }
-            if (lastSortMode == null) {
-                removeAllTlTeams(scoreboard);
-            }
-            lastSortMode = mode;
+    /**
+     * Counts an action reported by a loader hook as activity; may be called off the server thread.
+     */
+    public void onPlayerActivity(ServerPlayer player) {
+        if (player == null) {
             return;
         }
-
-        if (lastSortMode == null) {
-            removeAllTlTeams(scoreboard);
+        MinecraftServer server = serverOf(player);
+        if (server == null) {
+            return;
         }
 
-        List<ServerPlayer> players = new ArrayList<>(server.getPlayerList().getPlayers());
+        UUID uuid = player.getUUID();
+        if (server.isSameThread()) {
+            afkTracker.markActive(uuid, server.getTickCount());
+        } else {
+            server.execute(() -> afkTracker.markActive(uuid, server.getTickCount()));
+        }
+    }
 
-        Comparator<ServerPlayer> comparator;
+    private static MinecraftServer serverOf(ServerPlayer player) {
         //? if >=1.21.9 {
-        /*if ("RANK".equals(mode)) {
-            comparator = Comparator
-                    .comparingInt((ServerPlayer p) -> TabListVariables.getPlayerRankPower(p))
-                    .reversed()
-                    .thenComparing(p -> p.getGameProfile().name(), String.CASE_INSENSITIVE_ORDER);
-        } else {
-            comparator = Comparator.comparing(
-                    p -> p.getGameProfile().name(), String.CASE_INSENSITIVE_ORDER);
-        }*/
+        /*return player.level().getServer();*/
         //?} else {
-        if ("RANK".equals(mode)) {
-            comparator = Comparator
-                    .comparingInt((ServerPlayer p) -> TabListVariables.getPlayerRankPower(p))
-                    .reversed()
-                    .thenComparing(p -> p.getGameProfile().getName(), String.CASE_INSENSITIVE_ORDER);
-        } else {
-            comparator = Comparator.comparing(
-                    p -> p.getGameProfile().getName(), String.CASE_INSENSITIVE_ORDER);
-        }
+        return player.getServer();
         //?}
+    }
 
-        players.sort(comparator);
-
-        int index = 0;
-        List<String> neededTeams = new ArrayList<>();
-
-        for (ServerPlayer player : players) {
-            //? if >=1.21.9 {
-            /*String playerName = player.getGameProfile().name();*/
-            //?} else {
-            String playerName = player.getGameProfile().getName();
-            //?}
-
-            PlayerTeam currentTeam = scoreboard.getPlayersTeam(playerName);
-            if (currentTeam != null && !currentTeam.getName().startsWith(TEAM_PREFIX)) {
-                continue;
-            }
-
-            index++;
-            String teamName = String.format("%s%05d", TEAM_PREFIX, index);
-            neededTeams.add(teamName);
+    /**
+     * Queues the player for a display name update if its resolved name or AFK state changed since the last send.
+     */
+    private void trackDisplayName(ServerPlayer player, List<ServerPlayer> renamed) {
+        if (displayNames.update(player)) {
+            renamed.add(player);
+        }
+    }
 
-            if (currentTeam != null && currentTeam.getName().equals(teamName)) {
-                continue;
-            }
+    public DisplayNameCache getDisplayNames() {
+        return displayNames;
+    }
 
-            if (currentTeam != null) {
-                scoreboard.removePlayerFromTeam(playerName, currentTeam);
-            }
+    private void updateSorting(MinecraftServer server, ConfigSnapshot config) {
+        String mode = config.sortMode();
+        if (mode == null) {
+            mode = "NONE";
+        }
+        mode = mode.toUpperCase();
 
-            PlayerTeam team = scoreboard.getPlayerTeam(teamName);
-            if (team == null) {
-                team = scoreboard.addPlayerTeam(teamName);
-                team.setNameTagVisibility(PlayerTeam.Visibility.ALWAYS);
-                team.setPlayerPrefix(Component.empty());
-                team.setPlayerSuffix(Component.empty());
-            }
+        Scoreboard scoreboard = server.getScoreboard();
 
-            scoreboard.addPlayerToTeam(playerName, team);
+        // Start from a clean slate on the first cycle and whenever the mode changes
+        if (!mode.equals(lastSortMode)) {
+            sortedTeams.clear(scoreboard);
+            lastSortMode = mode;
         }
 
-        for (PlayerTeam team : List.copyOf(scoreboard.getPlayerTeams())) {
-            if (team.getName().startsWith(TEAM_PREFIX) && !neededTeams.contains(team.getName())) {
-                scoreboard.removePlayerTeam(team);
-            }
+        if ("NONE".equals(mode)) {
+            return;
         }
 
-        lastSortMode = mode;
+        sortedTeams.sync(scoreboard, server.getPlayerList().getPlayers(), "RANK".equals(mode));
     }
 
-    private void removeAllTlTeams(Scoreboard scoreboard) {
-        for (PlayerTeam team : List.copyOf(scoreboard.getPlayerTeams())) {
-            if (team.getName().startsWith(TEAM_PREFIX)) {
-                scoreboard.removePlayerTeam(team);
-            }
-        }
+    /**
+     * Stops or resumes all tab list updates; used by the load test.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Stops the file watcher and drops per-server state.
+     */
+    public void onServerStopping() {
+        configWatcher.stop();
+        renderPipeline.shutdown();
+        resetState();
+        afkTracker.clear();
+        appliedConfig = null;
     }
 
     public void onPlayerLogout(ServerPlayer player) {
         UUID uuid = player.getUUID();
-        lastSentContent.remove(uuid);
-        lastPlayerPositions.remove(uuid);
-        lastActivityTime.remove(uuid);
-
-        //? if >=1.21.9 {
-        /*MinecraftServer server = player.level().getServer();*/
-        //?} else {
-        MinecraftServer server = player.getServer();
-        //?}
+        renderPipeline.forget(uuid);
+        displayNames.remove(uuid);
+        displayNameBacklog.forget(uuid);
+        dirtyTracker.forget(uuid);
+        RankCache.remove(uuid);
+        afkTracker.remove(uuid);
+
+        MinecraftServer server = serverOf(player);
         if (server != null) {
-            Scoreboard scoreboard = server.getScoreboard();
-            //? if >=1.21.9 {
-            /*String playerName = player.getGameProfile().name();*/
-            //?} else {
-            String playerName = player.getGameProfile().getName();
-            //?}
-            PlayerTeam team = scoreboard.getPlayersTeam(playerName);
-            if (team != null && team.getName().startsWith(TEAM_PREFIX)) {
-                scoreboard.removePlayerFromTeam(playerName, team);
-                if (team.getPlayers().isEmpty()) {
-                    scoreboard.removePlayerTeam(team);
-                }
-            }
+            sortedTeams.remove(server.getScoreboard(), uuid);
         }
     }
 }
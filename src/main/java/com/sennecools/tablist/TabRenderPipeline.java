@@ -0,0 +1,257 @@
+package com.sennecools.tablist;
+
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.ClientboundTabListPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Renders headers/footers from captured snapshots, inline or on one daemon thread, and sends the packets from the
+ * server thread.
+ */
+public class TabRenderPipeline {
+
+    // Placeholder for players that joined but have not been sent anything yet
+    private static final TabContent NOTHING_SENT = new TabContent(null, null);
+
+    private final Map<UUID, TabContent> lastSentContent = new ConcurrentHashMap<>();
+    private final Map<FramePair, Prebuilt> prebuilt = new ConcurrentHashMap<>();
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private ExecutorService executor;
+
+    /**
+     * Renders and sends one cycle; returns false if the render thread is still busy with the previous one.
+     */
+    public boolean submit(MinecraftServer server, PlaceholderContext context, TabListTemplate header,
+                          TabListTemplate footer, List<ViewerSnapshot> viewers, boolean async) {
+        for (ViewerSnapshot viewer : viewers) {
+            lastSentContent.putIfAbsent(viewer.uuid(), NOTHING_SENT);
+        }
+
+        if (!async) {
+            render(server, context, header, footer, viewers);
+            return true;
+        }
+        if (!busy.compareAndSet(false, true)) {
+            return false;
+        }
+        executor().execute(() -> {
+            try {
+                render(server, context, header, footer, viewers);
+            } catch (Throwable t) {
+                Constants.LOGGER.error("TabList render failed", t);
+            } finally {
+                busy.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Sends content held back for players whose channel has drained. Runs where rendering runs.
+     */
+    public void flushDrained(MinecraftServer server, boolean async) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (!async) {
+            flush(server);
+            return;
+        }
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        executor().execute(() -> {
+            flushQueued.set(false);
+            try {
+                flush(server);
+            } catch (Throwable t) {
+                Constants.LOGGER.error("TabList flush failed", t);
+            }
+        });
+    }
+
+    public void forget(UUID uuid) {
+        lastSentContent.remove(uuid);
+        pending.remove(uuid);
+    }
+
+    public void clear() {
+        lastSentContent.clear();
+        prebuilt.clear();
+        pending.clear();
+    }
+
+    /**
+     * Builds the packets for every pair of static header and footer frames, so rendering only looks them up.
+     */
+    public void prebuild(List<TabListTemplate> headers, List<TabListTemplate> footers, RegistryAccess registries) {
+        for (TabListTemplate header : headers) {
+            for (TabListTemplate footer : footers) {
+                if (header.staticText() != null && footer.staticText() != null) {
+                    FramePair pair = new FramePair(header, footer);
+                    prebuilt.put(pair, Prebuilt.of(pair, registries));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the render thread, waiting briefly for a cycle in flight; the next async submit starts a fresh one.
+     */
+    public synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    private void render(MinecraftServer server, PlaceholderContext context, TabListTemplate header,
+                        TabListTemplate footer, List<ViewerSnapshot> viewers) {
+        long start = System.nanoTime();
+        Prebuilt frame = prebuilt.get(new FramePair(header, footer));
+        Map<TabContent, List<ServerPlayer>> recipients = new HashMap<>();
+        for (ViewerSnapshot viewer : viewers) {
+            TabContent content = frame != null
+                    ? frame.content()
+                    : new TabContent(context.render(header, viewer), context.render(footer, viewer));
+            TabContent previous = lastSentContent.get(viewer.uuid());
+            if (content.equals(previous)) {
+                // Back to what the client already shows; anything held back is stale now
+                pending.remove(viewer.uuid());
+                TabListMetrics.PACKETS_SKIPPED.increment();
+                continue;
+            }
+            if (!SharedPacketSender.isWritable(viewer.player())) {
+                pending.put(viewer.uuid(), new Pending(viewer.player(), content));
+                TabListMetrics.PACKETS_DEFERRED.increment();
+                continue;
+            }
+            pending.remove(viewer.uuid());
+            // replace() fails if the player logged out meanwhile, so departed players are never re-added
+            if (previous != null && lastSentContent.replace(viewer.uuid(), previous, content)) {
+                recipients.computeIfAbsent(content, key -> new ArrayList<>()).add(viewer.player());
+            }
+        }
+        Map<String, Component> parsed = new HashMap<>();
+        if (header.staticText() != null) {
+            parsed.put(header.staticText(), header.staticComponent());
+        }
+        if (footer.staticText() != null) {
+            parsed.put(footer.staticText(), footer.staticComponent());
+        }
+        sendTabContent(server, recipients, parsed, frame);
+        TabListMetrics.record(TabListMetrics.Phase.RENDER, start);
+    }
+
+    private void flush(MinecraftServer server) {
+        Map<TabContent, List<ServerPlayer>> recipients = new HashMap<>();
+        for (Map.Entry<UUID, Pending> entry : pending.entrySet()) {
+            Pending held = entry.getValue();
+            if (!SharedPacketSender.isWritable(held.player()) || !pending.remove(entry.getKey(), held)) {
+                continue;
+            }
+            TabContent previous = lastSentContent.get(entry.getKey());
+            if (previous != null && lastSentContent.replace(entry.getKey(), previous, held.content())) {
+                recipients.computeIfAbsent(held.content(), key -> new ArrayList<>()).add(held.player());
+            }
+        }
+        if (!recipients.isEmpty()) {
+            sendTabContent(server, recipients, new HashMap<>(), null);
+        }
+    }
+
+    /**
+     * Parses each distinct header/footer once, then sends the same packet to every player that needs it.
+     */
+    private void sendTabContent(Executor serverThread, Map<TabContent, List<ServerPlayer>> recipients,
+                                Map<String, Component> parsed, Prebuilt frame) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        List<Send> sends = new ArrayList<>(recipients.size());
+        for (Map.Entry<TabContent, List<ServerPlayer>> entry : recipients.entrySet()) {
+            TabContent content = entry.getKey();
+            ClientboundTabListPacket packet = frame != null
+                ? frame.packet()
+                : new ClientboundTabListPacket(
+                    parsed.computeIfAbsent(content.header(), TabListVariables::parseColoredText),
+                    parsed.computeIfAbsent(content.footer(), TabListVariables::parseColoredText)
+                );
+            sends.add(new Send(packet, entry.getValue()));
+        }
+        // Runs inline when already on the server thread, otherwise queued for its next task pass
+        serverThread.execute(() -> {
+            for (Send send : sends) {
+                int players = send.players().size();
+                SharedPacketSender.send(send.packet(), send.players());
+                TabListMetrics.PACKETS_SENT.add(players);
+                // Bytes are only counted where the packet was encoded anyway
+                if (frame != null) {
+                    TabListMetrics.PREBUILT_SENT.add(players);
+                    TabListMetrics.PACKETS_MEASURED.add(players);
+                    TabListMetrics.BYTES_SENT.add((long) frame.size() * players);
+                }
+            }
+        });
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "TabList Render");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private record TabContent(String header, String footer) {
+    }
+
+    private record Pending(ServerPlayer player, TabContent content) {
+    }
+
+    private record Send(ClientboundTabListPacket packet, List<ServerPlayer> players) {
+    }
+
+    // Keyed on the exact frame objects of one config snapshot
+    private record FramePair(TabListTemplate header, TabListTemplate footer) {
+    }
+
+    private record Prebuilt(TabContent content, ClientboundTabListPacket packet, int size) {
+        static Prebuilt of(FramePair frames, RegistryAccess registries) {
+            TabListTemplate header = frames.header();
+            TabListTemplate footer = frames.footer();
+            ClientboundTabListPacket packet =
+                new ClientboundTabListPacket(header.staticComponent(), footer.staticComponent());
+            return new Prebuilt(new TabContent(header.staticText(), footer.staticText()), packet,
+                    TabListMetrics.encodedSize(packet, registries));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.sennecools.tablist;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads player refreshes over the configured update interval by UUID hash, in wall-clock time. Server thread only.
+ */
+final class UpdateScheduler {
+
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final long MAX_STEP_NANOS = 2 * TICK_NANOS;
+    private static final long RATE_WINDOW_NANOS = 5_000_000_000L;
+
+    private int intervalMs = -1;
+    private int stretch = 1;
+    private int buckets = 1;
+    private long intervalNanos;
+    private long bucketNanos;
+
+    private boolean started = false;
+    private long lastTickNanos;
+    private long owedNanos;
+    private int nextBucket;
+    private int firstDue;
+    private int dueCount;
+
+    private long windowStartNanos;
+    private long windowBuckets;
+    private double achievedRate;
+
+    /**
+     * Applies the configured interval, multiplied by {@code stretch} while load shedding.
+     */
+    void configure(int intervalMs, int stretch) {
+        if (intervalMs != this.intervalMs) {
+            this.intervalMs = intervalMs;
+            // About one bucket per tick at the nominal rate
+            buckets = Math.max(1, Math.round(intervalMs / 50.0f));
+            this.stretch = stretch;
+            applyStretch();
+            reset();
+        } else if (stretch != this.stretch) {
+            this.stretch = stretch;
+            applyStretch();
+            owedNanos = Math.min(owedNanos, intervalNanos);
+        }
+    }
+
+    private void applyStretch() {
+        intervalNanos = intervalMs * 1_000_000L * stretch;
+        bucketNanos = intervalNanos / buckets;
+    }
+
+    void reset() {
+        started = false;
+        nextBucket = 0;
+        dueCount = 0;
+        achievedRate = 0;
+    }
+
+    /**
+     * Moves the schedule forward to {@code now} ({@link System#nanoTime()}).
+     */
+    void advance(long now) {
+        if (!started) {
+            started = true;
+            lastTickNanos = now;
+            windowStartNanos = now;
+            windowBuckets = 0;
+            // Refresh the first bucket right away
+            owedNanos = bucketNanos;
+        } else {
+            owedNanos = Math.min(owedNanos + (now - lastTickNanos), intervalNanos);
+            lastTickNanos = now;
+        }
+
+        int count = (int) Math.min(Math.min(owedNanos, MAX_STEP_NANOS) / bucketNanos, buckets);
+        owedNanos -= count * bucketNanos;
+        firstDue = nextBucket;
+        dueCount = count;
+        nextBucket = (nextBucket + count) % buckets;
+
+        windowBuckets += count;
+        long windowNanos = now - windowStartNanos;
+        if (windowNanos >= RATE_WINDOW_NANOS) {
+            achievedRate = windowBuckets / (double) buckets * 1_000_000_000.0 / windowNanos;
+            windowStartNanos = now;
+            windowBuckets = 0;
+        }
+    }
+
+    /**
+     * Whether this tick starts a new round, which is when animation and sorting advance.
+     */
+    boolean startsRound() {
+        return dueCount > 0 && (firstDue == 0 || firstDue + dueCount > buckets);
+    }
+
+    List<ServerPlayer> duePlayers(List<ServerPlayer> players) {
+        if (dueCount == 0) {
+            return List.of();
+        }
+        if (dueCount == buckets) {
+            return players;
+        }
+        List<ServerPlayer> due = new ArrayList<>(players.size() * dueCount / buckets + 1);
+        for (ServerPlayer player : players) {
+            int bucket = Math.floorMod(player.getUUID().hashCode(), buckets);
+            if (Math.floorMod(bucket - firstDue, buckets) < dueCount) {
+                due.add(player);
+            }
+        }
+        return due;
+    }
+
+    double achievedRate() {
+        return achievedRate;
+    }
+
+    double targetRate() {
+        return intervalMs > 0 ? 1000.0 / ((double) intervalMs * stretch) : 0;
+    }
+}
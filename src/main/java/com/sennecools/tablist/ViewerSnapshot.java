@@ -0,0 +1,27 @@
+package com.sennecools.tablist;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import java.util.UUID;
+
+/**
+ * The per-player inputs of a header/footer render, captured on the server thread.
+ */
+public record ViewerSnapshot(ServerPlayer player, UUID uuid, String name, int ping,
+                             ResourceKey<Level> dimension, boolean afk, RankCache.RankInfo rank) {
+
+    public static ViewerSnapshot capture(ServerPlayer player) {
+        boolean afk = TabListUpdater.INSTANCE != null && TabListUpdater.INSTANCE.isPlayerAFK(player);
+        return new ViewerSnapshot(
+                player,
+                player.getUUID(),
+                TabListVariables.getProfileName(player),
+                player.connection.latency(),
+                player.level().dimension(),
+                afk,
+                RankCache.get(player)
+        );
+    }
+}
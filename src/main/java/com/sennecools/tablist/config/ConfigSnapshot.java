@@ -0,0 +1,54 @@
+package com.sennecools.tablist.config;
+
+import com.sennecools.tablist.PlaceholderContext;
+import com.sennecools.tablist.TabListTemplate;
+
+import java.util.List;
+
+/**
+ * One loaded, immutable version of the config, with the header and footer frames already compiled.
+ */
+public record ConfigSnapshot(
+        String serverName,
+        List<TabListTemplate> headerTemplates,
+        List<TabListTemplate> footerTemplates,
+        int updateInterval,
+        int animationInterval,
+        String displayNameFormat,
+        boolean enableFTBRanksFormatting,
+        String sortMode,
+        boolean afkEnabled,
+        int afkTimeout,
+        boolean asyncRendering,
+        boolean adaptiveEnabled,
+        List<Double> adaptiveThresholds,
+        boolean watchFile
+) {
+
+    /**
+     * In effect until the config file has been loaded once.
+     */
+    public static final ConfigSnapshot DEFAULTS = new ConfigSnapshot(
+            "", List.of(), List.of(), 500, 4, "{name}", false, "NONE", false, 300, false,
+            false, List.of(40.0, 45.0, 50.0), false);
+
+    public ConfigSnapshot {
+        headerTemplates = List.copyOf(headerTemplates);
+        footerTemplates = List.copyOf(footerTemplates);
+        adaptiveThresholds = List.copyOf(adaptiveThresholds);
+    }
+
+    /**
+     * Returns a copy whose static header and footer frames are rendered into their final components.
+     */
+    public ConfigSnapshot precomputeStaticFrames() {
+        PlaceholderContext context = PlaceholderContext.forConfig(this);
+        return new ConfigSnapshot(serverName, precompute(headerTemplates, context), precompute(footerTemplates, context),
+                updateInterval, animationInterval, displayNameFormat, enableFTBRanksFormatting, sortMode, afkEnabled,
+                afkTimeout, asyncRendering, adaptiveEnabled, adaptiveThresholds, watchFile);
+    }
+
+    private static List<TabListTemplate> precompute(List<TabListTemplate> frames, PlaceholderContext context) {
+        return frames.stream().map(frame -> frame.precompute(context)).toList();
+    }
+}
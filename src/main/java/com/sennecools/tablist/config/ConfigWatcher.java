@@ -0,0 +1,110 @@
+package com.sennecools.tablist.config;
+
+import com.sennecools.tablist.Constants;
+import com.sennecools.tablist.platform.Services;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads {@code tablist.toml} when it changes on disk, once it has been quiet for {@link #DEBOUNCE_MS}.
+ */
+public class ConfigWatcher {
+
+    private static final long DEBOUNCE_MS = 500;
+
+    private final Path directory = Services.PLATFORM.getConfigDir();
+    private final Path fileName = TabListConfig.configPath().getFileName();
+    private Thread thread;
+    private WatchService watchService;
+
+    /**
+     * Starts or stops watching; {@code publisher} is where reloaded snapshots are swapped in.
+     */
+    public synchronized void setEnabled(boolean enabled, Executor publisher) {
+        if (enabled && thread == null) {
+            thread = new Thread(() -> run(publisher), "TabList Config Watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } else if (!enabled && thread != null) {
+            stop();
+        }
+    }
+
+    public synchronized void stop() {
+        thread = null;
+        if (watchService != null) {
+            closeQuietly(watchService);
+            watchService = null;
+        }
+    }
+
+    private void run(Executor publisher) {
+        WatchService service;
+        try {
+            service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            Constants.LOGGER.error("Could not watch {} for TabList config changes", directory, e);
+            return;
+        }
+        synchronized (this) {
+            // Stopped (and perhaps restarted) while the service was being set up
+            if (thread != Thread.currentThread()) {
+                closeQuietly(service);
+                return;
+            }
+            watchService = service;
+        }
+        Constants.LOGGER.info("Watching {} for changes", directory.resolve(fileName));
+
+        try {
+            while (true) {
+                if (!concernsConfig(service.take())) {
+                    continue;
+                }
+                // Wait for the writes to settle before parsing
+                WatchKey next;
+                while ((next = service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    concernsConfig(next);
+                }
+                TabListConfig.reload(publisher).whenComplete((snapshot, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        Constants.LOGGER.error("TabList config changed on disk but could not be loaded, keeping the previous settings", cause);
+                    }
+                });
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Consumes the key's events and re-arms it; returns whether any may have touched the config file.
+     */
+    private boolean concernsConfig(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private static void closeQuietly(WatchService service) {
+        try {
+            service.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -3,29 +3,70 @@ package com.sennecools.tablist.config;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 import com.sennecools.tablist.Constants;
+import com.sennecools.tablist.TabListTemplate;
 import com.sennecools.tablist.platform.Services;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads {@code tablist.toml} into a {@link ConfigSnapshot}; the previous snapshot stays in effect on failure.
+ */
 public class TabListConfig {
 
-    // Runtime values
-    public static String serverName;
-    public static List<String> headerFrames;
-    public static List<String> footerFrames;
-    public static int updateInterval;
-    public static int animationInterval;
-    public static String displayNameFormat;
-    public static boolean enableFTBRanksFormatting;
-    public static String sortMode;
-    public static boolean afkEnabled;
-    public static int afkTimeout;
+    public static final List<String> DEFAULT_HEADER = List.of(
+            "#N        &#FF5555&l#SERVERNAME        #N&#AAAAAA&m            #N",
+            "#N        &#5555FF&l#SERVERNAME        #N&#AAAAAA&m            #N"
+    );
+    public static final List<String> DEFAULT_FOOTER = List.of(
+            "&fOnline: &e#PLAYERCOUNT&7/&e#MAXPLAYERS #N&7TPS: #CTPS &7| MSPT: &#55FFFF#MSPT #N&7Memory: &#AA55FF#MEMORY &7| Uptime: &#FFAA00#UPTIME",
+            "&fOnline: &e#PLAYERCOUNT&7/&e#MAXPLAYERS #N&7TPS: #CTPS &7| Ping: &#55FFFF#PING&7ms #N&7Memory: &#AA55FF#MEMORY &7| Uptime: &#FFAA00#UPTIME"
+    );
+
+    public static final List<Double> DEFAULT_ADAPTIVE_THRESHOLDS = List.of(40.0, 45.0, 50.0);
+
+    private static final AtomicReference<ConfigSnapshot> CURRENT = new AtomicReference<>(ConfigSnapshot.DEFAULTS);
+
+    private static final Executor LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TabList Config");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static ConfigSnapshot get() {
+        return CURRENT.get();
+    }
 
     public static void load() {
-        Path configPath = Services.PLATFORM.getConfigDir().resolve("tablist.toml");
+        try {
+            CURRENT.set(read());
+        } catch (RuntimeException e) {
+            Constants.LOGGER.error("Failed to load TabList config, keeping the previous settings", e);
+        }
+    }
+
+    /**
+     * Loads the config off-thread and publishes it on {@code publisher}.
+     */
+    public static CompletableFuture<ConfigSnapshot> reload(Executor publisher) {
+        return CompletableFuture.supplyAsync(TabListConfig::read, LOADER)
+                .thenApplyAsync(snapshot -> {
+                    CURRENT.set(snapshot);
+                    return snapshot;
+                }, publisher);
+    }
 
-        try (CommentedFileConfig config = CommentedFileConfig.builder(configPath)
+    static Path configPath() {
+        return Services.PLATFORM.getConfigDir().resolve("tablist.toml");
+    }
+
+    private static ConfigSnapshot read() {
+        try (CommentedFileConfig config = CommentedFileConfig.builder(configPath())
                 .autosave()
                 .preserveInsertionOrder()
                 .build()) {
@@ -37,20 +78,16 @@ public class TabListConfig {
             // ── Appearance ──
             needsSave |= setDefaultIfMissing(config, "appearance.server_name", "Your Server",
                     "Your server's name. Use #SERVERNAME in header/footer to insert it.");
-            needsSave |= setDefaultIfMissing(config, "appearance.header", List.of(
-                    "#N        &#FF5555&l#SERVERNAME        #N&#AAAAAA&m            #N",
-                    "#N        &#5555FF&l#SERVERNAME        #N&#AAAAAA&m            #N"
-            ), "Text shown above the player list. Multiple entries create animation frames.");
-            needsSave |= setDefaultIfMissing(config, "appearance.footer", List.of(
-                    "&fOnline: &e#PLAYERCOUNT&7/&e#MAXPLAYERS #N&7TPS: #CTPS &7| MSPT: &#55FFFF#MSPT #N&7Memory: &#AA55FF#MEMORY &7| Uptime: &#FFAA00#UPTIME",
-                    "&fOnline: &e#PLAYERCOUNT&7/&e#MAXPLAYERS #N&7TPS: #CTPS &7| Ping: &#55FFFF#PING&7ms #N&7Memory: &#AA55FF#MEMORY &7| Uptime: &#FFAA00#UPTIME"
-            ), "Text shown below the player list. Multiple entries create animation frames.");
+            needsSave |= setDefaultIfMissing(config, "appearance.header", DEFAULT_HEADER,
+                    "Text shown above the player list. Multiple entries create animation frames; start an entry with <duration:ms> to set how long it is shown.");
+            needsSave |= setDefaultIfMissing(config, "appearance.footer", DEFAULT_FOOTER,
+                    "Text shown below the player list. Multiple entries create animation frames; start an entry with <duration:ms> to set how long it is shown.");
             needsSave |= setDefaultIfMissing(config, "appearance.display_name_format", "{name} &7#AFK",
                     "Display name format. Supports {name}, {rank} placeholders + & color codes.");
             needsSave |= setDefaultIfMissing(config, "appearance.update_interval", 500,
-                    "How often (ms) the tab list refreshes. Range: 1-10000. Default: 500.");
+                    "How often (ms) the tab list refreshes. Range: 1-10000. Default: 500. At most once per tick (50 ms).");
             needsSave |= setDefaultIfMissing(config, "appearance.animation_interval", 4,
-                    "Update cycles between animation frame changes. Range: 1-200. Default: 4.");
+                    "Update cycles between animation frame changes, for frames without a <duration:ms>. Range: 1-200. Default: 4.");
 
             // ── Sorting ──
             needsSave |= setDefaultIfMissing(config, "sorting.sort_mode", "NONE",
@@ -66,23 +103,41 @@ public class TabListConfig {
             needsSave |= setDefaultIfMissing(config, "afk.afk_timeout", 300,
                     "Seconds of inactivity before AFK. Range: 10-3600. Default: 300.");
 
+            // ── Performance ──
+            needsSave |= setDefaultIfMissing(config, "performance.async_rendering", false,
+                    "Render header/footer on a background thread so rendering cost stays off the server tick.");
+            needsSave |= setDefaultIfMissing(config, "performance.adaptive_enabled", false,
+                    "Back tab list updates off while the server is lagging, and restore them once it recovers. Off by default.");
+            needsSave |= setDefaultIfMissing(config, "performance.adaptive_mspt_thresholds", DEFAULT_ADAPTIVE_THRESHOLDS,
+                    "Average MSPT above which each load-shedding level starts, ascending. 1: update interval x2. 2: x4 and animations paused. 3: x8 and per-player placeholder changes skipped.");
+
+            // ── Reload ──
+            needsSave |= setDefaultIfMissing(config, "reload.watch_file", false,
+                    "Reload this file automatically when it changes on disk, without /tablist reload.");
+
             if (needsSave) {
                 config.save();
             }
 
-            // Load runtime values
-            serverName = config.getOrElse("appearance.server_name", "Your Server");
-            headerFrames = List.copyOf(config.getOrElse("appearance.header", List.of("")));
-            footerFrames = List.copyOf(config.getOrElse("appearance.footer", List.of("")));
-            updateInterval = clamp(config.getOrElse("appearance.update_interval", 500), 1, 10000);
-            animationInterval = clamp(config.getOrElse("appearance.animation_interval", 4), 1, 200);
-            displayNameFormat = config.getOrElse("appearance.display_name_format", "{name} &7#AFK");
-            enableFTBRanksFormatting = config.getOrElse("ftbranks.enable_ftbranks_formatting", true);
-            sortMode = config.getOrElse("sorting.sort_mode", "NONE");
-            afkEnabled = config.getOrElse("afk.afk_enabled", true);
-            afkTimeout = clamp(config.getOrElse("afk.afk_timeout", 300), 10, 3600);
-
-            Constants.LOGGER.info("TabList config loaded. Update interval: {} ms", updateInterval);
+            ConfigSnapshot snapshot = new ConfigSnapshot(
+                    config.getOrElse("appearance.server_name", "Your Server"),
+                    compileFrames(config.getOrElse("appearance.header", List.of(""))),
+                    compileFrames(config.getOrElse("appearance.footer", List.of(""))),
+                    clamp(config.getOrElse("appearance.update_interval", 500), 1, 10000),
+                    clamp(config.getOrElse("appearance.animation_interval", 4), 1, 200),
+                    config.getOrElse("appearance.display_name_format", "{name} &7#AFK"),
+                    config.getOrElse("ftbranks.enable_ftbranks_formatting", true),
+                    config.getOrElse("sorting.sort_mode", "NONE"),
+                    config.getOrElse("afk.afk_enabled", true),
+                    clamp(config.getOrElse("afk.afk_timeout", 300), 10, 3600),
+                    config.getOrElse("performance.async_rendering", false),
+                    config.getOrElse("performance.adaptive_enabled", false),
+                    thresholds(config.getOrElse("performance.adaptive_mspt_thresholds", List.of())),
+                    config.getOrElse("reload.watch_file", false))
+                    .precomputeStaticFrames();
+
+            Constants.LOGGER.info("TabList config loaded. Update interval: {} ms", snapshot.updateInterval());
+            return snapshot;
         }
     }
 
@@ -95,6 +150,26 @@ public class TabListConfig {
         return false;
     }
 
+    private static List<TabListTemplate> compileFrames(List<String> frames) {
+        return frames.stream().map(TabListTemplate::compile).toList();
+    }
+
+    /**
+     * Reads the load-shedding thresholds, falling back to the defaults unless they are positive and ascending.
+     */
+    private static List<Double> thresholds(List<?> values) {
+        List<Double> thresholds = new ArrayList<>();
+        for (Object value : values) {
+            if (!(value instanceof Number number) || number.doubleValue() <= 0
+                    || (!thresholds.isEmpty() && number.doubleValue() <= thresholds.get(thresholds.size() - 1))) {
+                Constants.LOGGER.warn("Invalid performance.adaptive_mspt_thresholds {}, using {}", values, DEFAULT_ADAPTIVE_THRESHOLDS);
+                return DEFAULT_ADAPTIVE_THRESHOLDS;
+            }
+            thresholds.add(number.doubleValue());
+        }
+        return thresholds.isEmpty() ? DEFAULT_ADAPTIVE_THRESHOLDS : thresholds;
+    }
+
     private static int clamp(int value, int min, int max) {
         return Math.max(min, Math.min(max, value));
     }
@@ -1,13 +1,17 @@
 //? if fabric {
 package com.sennecools.tablist.fabric;
 
+import com.sennecools.tablist.fabric.mixin.ServerCommonPacketListenerImplAccessor;
 import com.sennecools.tablist.platform.PlatformHelper;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.network.Connection;
 import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.List;
 
 public class FabricPlatformHelper implements PlatformHelper {
 
@@ -22,21 +26,20 @@ public class FabricPlatformHelper implements PlatformHelper {
     }
 
     @Override
-    public void refreshDisplayName(ServerPlayer player) {
-        //? if >=1.21.9 {
-        /*if (player.level().getServer() == null) return;*/
-        //?} else {
-        if (player.getServer() == null) return;
-        //?}
+    public Connection getConnection(ServerPlayer player) {
+        return ((ServerCommonPacketListenerImplAccessor) player.connection).tablist$getConnection();
+    }
+
+    @Override
+    public void refreshDisplayNames(MinecraftServer server, List<ServerPlayer> players, List<ServerPlayer> recipients) {
+        // One batched packet for every changed player instead of one broadcast per player
         ClientboundPlayerInfoUpdatePacket packet = new ClientboundPlayerInfoUpdatePacket(
                 EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.UPDATE_DISPLAY_NAME),
-                java.util.List.of(player)
+                players
         );
-        //? if >=1.21.9 {
-        /*player.level().getServer().getPlayerList().broadcastAll(packet);*/
-        //?} else {
-        player.getServer().getPlayerList().broadcastAll(packet);
-        //?}
+        for (ServerPlayer recipient : recipients) {
+            recipient.connection.send(packet);
+        }
     }
 }
 //?}
@@ -5,6 +5,7 @@ import com.sennecools.tablist.TabListUpdater;
 import com.sennecools.tablist.config.TabListConfig;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
@@ -18,9 +19,14 @@ public class TabListFabric implements ModInitializer {
         TabListUpdater updater = new TabListUpdater();
 
         ServerTickEvents.END_SERVER_TICK.register(updater::onServerTick);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> updater.onServerStopping());
 
         ServerMessageEvents.CHAT_MESSAGE.register((message, sender, params) -> {
-            updater.onPlayerChat(sender);
+            updater.onPlayerActivity(sender);
+        });
+
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            updater.onPlayerLogin(handler.getPlayer());
         });
 
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
@@ -0,0 +1,15 @@
+//? if fabric {
+package com.sennecools.tablist.fabric.mixin;
+
+import net.minecraft.network.Connection;
+import net.minecraft.server.network.ServerCommonPacketListenerImpl;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(ServerCommonPacketListenerImpl.class)
+public interface ServerCommonPacketListenerImplAccessor {
+
+    @Accessor("connection")
+    Connection tablist$getConnection();
+}
+//?}
@@ -1,12 +1,14 @@
 //? if fabric {
 package com.sennecools.tablist.fabric.mixin;
 
+import com.sennecools.tablist.TabListUpdater;
 import com.sennecools.tablist.TabListVariables;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 @Mixin(ServerPlayer.class)
@@ -15,8 +17,15 @@ public abstract class ServerPlayerMixin {
     @Inject(method = "getTabListDisplayName", at = @At("HEAD"), cancellable = true)
     private void tablist$getTabListDisplayName(CallbackInfoReturnable<Component> cir) {
         ServerPlayer self = (ServerPlayer) (Object) this;
-        String displayName = TabListVariables.resolveDisplayName(self);
-        cir.setReturnValue(TabListVariables.parseColoredText(displayName));
+        cir.setReturnValue(TabListVariables.getTabListDisplayName(self));
+    }
+
+    // Vanilla resets this on every player action (interactions, commands, chat, inventory clicks, ...)
+    @Inject(method = "resetLastActionTime", at = @At("HEAD"))
+    private void tablist$resetLastActionTime(CallbackInfo ci) {
+        if (TabListUpdater.INSTANCE != null) {
+            TabListUpdater.INSTANCE.onPlayerActivity((ServerPlayer) (Object) this);
+        }
     }
 }
 //?}
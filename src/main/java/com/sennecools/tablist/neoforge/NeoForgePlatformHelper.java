@@ -2,11 +2,17 @@
 /*package com.sennecools.tablist.neoforge;
 
 import com.sennecools.tablist.platform.PlatformHelper;
+import net.minecraft.network.Connection;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.fml.ModList;
 import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.event.EventHooks;
 
 import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
 
 public class NeoForgePlatformHelper implements PlatformHelper {
 
@@ -21,8 +27,23 @@ public class NeoForgePlatformHelper implements PlatformHelper {
     }
 
     @Override
-    public void refreshDisplayName(ServerPlayer player) {
-        player.refreshTabListName();
+    public Connection getConnection(ServerPlayer player) {
+        return player.connection.connection;
+    }
+
+    @Override
+    public void refreshDisplayNames(MinecraftServer server, List<ServerPlayer> players, List<ServerPlayer> recipients) {
+        // Re-fire TabListNameFormat like refreshTabListName does, without its per-player broadcast
+        for (ServerPlayer player : players) {
+            player.tabListDisplayName = EventHooks.getPlayerTabListDisplayName(player);
+        }
+        ClientboundPlayerInfoUpdatePacket packet = new ClientboundPlayerInfoUpdatePacket(
+                EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.UPDATE_DISPLAY_NAME),
+                players
+        );
+        for (ServerPlayer recipient : recipients) {
+            recipient.connection.send(packet);
+        }
     }
 }
 *///?}
@@ -7,12 +7,17 @@ import com.sennecools.tablist.TabListVariables;
 import com.sennecools.tablist.config.TabListConfig;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.CommandEvent;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.neoforge.event.ServerChatEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
 @Mod(Constants.MOD_ID)
@@ -31,16 +36,69 @@ public class TabListNeoForge {
         updater.onServerTick(event.getServer());
     }
 
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        updater.onServerStopping();
+    }
+
     @SubscribeEvent
     public void onServerChat(ServerChatEvent event) {
-        updater.onPlayerChat(event.getPlayer());
+        updater.onPlayerActivity(event.getPlayer());
+    }
+
+    @SubscribeEvent
+    public void onCommand(CommandEvent event) {
+        updater.onPlayerActivity(event.getParseResults().getContext().getSource().getPlayer());
+    }
+
+    @SubscribeEvent
+    public void onRightClickBlock(PlayerInteractEvent.RightClickBlock event) {
+        onActivity(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public void onRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        onActivity(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public void onLeftClickBlock(PlayerInteractEvent.LeftClickBlock event) {
+        onActivity(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public void onEntityInteract(PlayerInteractEvent.EntityInteract event) {
+        onActivity(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public void onContainerOpen(PlayerContainerEvent.Open event) {
+        onActivity(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public void onContainerClose(PlayerContainerEvent.Close event) {
+        onActivity(event.getEntity());
+    }
+
+    private void onActivity(Player entity) {
+        // Interaction events also fire on the client side; only server players are tracked
+        if (entity instanceof ServerPlayer player) {
+            updater.onPlayerActivity(player);
+        }
     }
 
     @SubscribeEvent
     public void onTabListNameFormat(PlayerEvent.TabListNameFormat event) {
         if (event.getEntity() instanceof ServerPlayer player) {
-            String displayName = TabListVariables.resolveDisplayName(player);
-            event.setDisplayName(TabListVariables.parseColoredText(displayName));
+            event.setDisplayName(TabListVariables.getTabListDisplayName(player));
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            updater.onPlayerLogin(player);
         }
     }
 
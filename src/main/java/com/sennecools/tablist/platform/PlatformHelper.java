@@ -1,8 +1,11 @@
 package com.sennecools.tablist.platform;
 
+import net.minecraft.network.Connection;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.nio.file.Path;
+import java.util.List;
 
 public interface PlatformHelper {
 
@@ -10,5 +13,10 @@ public interface PlatformHelper {
 
     Path getConfigDir();
 
-    void refreshDisplayName(ServerPlayer player);
+    Connection getConnection(ServerPlayer player);
+
+    /**
+     * Pushes the display names of {@code players} to {@code recipients} in one packet.
+     */
+    void refreshDisplayNames(MinecraftServer server, List<ServerPlayer> players, List<ServerPlayer> recipients);
 }
@@ -0,0 +1,69 @@
+package com.sennecools.tablist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Differential test: {@link ColorCodeLexer} must produce byte-identical output to the old regex chain.
+ */
+class ColorCodeLexerTest {
+
+    private static final List<String> CORPUS = List.of(
+            "",
+            "plain text",
+            "&aGreen &lbold &rreset",
+            "&#FF5555&lServer &#AAAAAA&m            ",
+            "&fOnline: &e12&7/&e100 &7TPS: &a20.0",
+            "&x&F&F&0&0&0&0legacy hex",
+            "&#12345 short hex &#GG0000 bad hex &z not a code &",
+            "<gradient:#FF0000:#0000FF>Gradient</gradient>",
+            "<gradient:#FF0000:#00FF00:#0000FF>Three stops &lbold&r end</gradient> after",
+            "<#FF0000>Tab style</#0000FF>",
+            "<#FF0000>a</#0000FF><#00FF00>b</#FF00FF>",
+            "<gradient:#FF0000:#0000FF>&c&l</gradient>x",
+            "<gradient:#FF0000:#0000FF></gradient>&",
+            "&<gradient:#FF0000:#0000FF></gradient>c",
+            "<gradient:#FF0000:#0000FF>a&</gradient>c",
+            "<gradient:#FF0000:#0000FF>a<</gradient>#00FF00>b</#0000FF>",
+            "<#FF0000><gradient:#FF0000:#0000FF>in</gradient></#0000FF>",
+            "<#FF0000>a<gradient:#FF0000:#0000FF>b</#0000FF>c</gradient>",
+            "<gradient:#FF0000:#0000FF>line\nbreak</gradient>",
+            "<gradient:#FF0000:#0000FF>&x&1&2&3&4&5&6hex inside</gradient>",
+            "<gradient:#FF0000>one stop</gradient>",
+            "<#FF0000>unclosed",
+            "</#FF0000>stray close"
+    );
+
+    private static final String[] TOKENS = {
+            "a", "b", "Z", "0", "F", "k", "x", " ", "\n", "#", "<", ">", "/", ":", "&",
+            "&c", "&l", "&r", "&K", "&x", "&#", "&#FF0000", "&#12ab", "&x&1&2&3&4&5&6",
+            "<gradient:", "<gradient:#FF0000:#0000FF>", "<gradient:#112233:#445566:#778899>", "</gradient>",
+            "<#FF0000>", "</#00FF00>", "<#", "</#", "00FF00>", "#00FF00", "</"
+    };
+
+    @Test
+    void corpusMatchesRegexChain() {
+        for (String text : CORPUS) {
+            assertEquals(LegacyColorCodes.convert(text), ColorCodeLexer.convert(text), () -> "input: " + text);
+        }
+    }
+
+    @Test
+    void generatedInputsMatchRegexChain() {
+        Random random = new Random(20240611L);
+        StringBuilder text = new StringBuilder();
+        for (int run = 0; run < 200_000; run++) {
+            text.setLength(0);
+            int tokens = random.nextInt(14);
+            for (int t = 0; t < tokens; t++) {
+                text.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            String input = text.toString();
+            assertEquals(LegacyColorCodes.convert(input), ColorCodeLexer.convert(input), () -> "input: " + input);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With the default config, viewers are only re-rendered when the text they would see changes.
+ */
+class DirtyTrackerTest {
+
+    private static final int VIEWERS = 3;
+
+    @BeforeAll
+    static void bootstrap() {
+        TestSupport.bootstrap();
+    }
+
+    @Test
+    void defaultFooterIsDirtyOnlyWhenItsTextChanges() {
+        ConfigSnapshot config = TestSupport.defaultConfig("Server");
+        TabListTemplate header = config.headerTemplates().get(0);
+        TabListTemplate footer = config.footerTemplates().get(0);
+        List<ViewerSnapshot> viewers = viewers();
+        DirtyTracker tracker = new DirtyTracker();
+
+        String shown = null;
+        int clean = 0;
+        for (int cycle = 0; cycle < 1_000 && clean < 10; cycle++) {
+            PlaceholderContext context = PlaceholderContext.forConfig(config);
+            tracker.sample(context, header.sources() | footer.sources());
+            String text = context.render(footer, viewers.get(0));
+            List<ViewerSnapshot> dirty = new ArrayList<>();
+            for (ViewerSnapshot viewer : viewers) {
+                if (tracker.isTabDirty(viewer, header, footer, true)) {
+                    dirty.add(viewer);
+                }
+            }
+            if (text.equals(shown)) {
+                assertTrue(dirty.isEmpty(), () -> "re-rendered unchanged footer: " + text);
+                clean++;
+            } else {
+                assertEquals(viewers, dirty);
+            }
+            tracker.markRendered(dirty, header, footer);
+            shown = text;
+        }
+        // #MEMORY and #UPTIME change now and then, but not between most back-to-back cycles
+        assertEquals(10, clean);
+    }
+
+    @Test
+    void staticFramesStayClean() {
+        ConfigSnapshot config = TestSupport.defaultConfig("Server");
+        TabListTemplate header = config.headerTemplates().get(0);
+        List<ViewerSnapshot> viewers = viewers();
+        DirtyTracker tracker = new DirtyTracker();
+
+        tracker.sample(PlaceholderContext.forConfig(config), header.sources());
+        tracker.markRendered(viewers, header, header);
+        for (int cycle = 0; cycle < 100; cycle++) {
+            tracker.sample(PlaceholderContext.forConfig(config), header.sources());
+            for (ViewerSnapshot viewer : viewers) {
+                assertFalse(tracker.isTabDirty(viewer, header, header, true));
+            }
+        }
+    }
+
+    @Test
+    void pingOnlyCountsWithPerPlayerChanges() {
+        ConfigSnapshot config = TestSupport.defaultConfig("Server");
+        TabListTemplate header = config.headerTemplates().get(0);
+        // The second default footer shows the viewer's ping
+        TabListTemplate footer = config.footerTemplates().get(1);
+        DirtyTracker tracker = new DirtyTracker();
+        PlaceholderContext context = PlaceholderContext.forConfig(config);
+
+        tracker.sample(context, header.sources() | footer.sources());
+        tracker.markRendered(List.of(TestSupport.viewer(0, "Steve", 40, false, "")), header, footer);
+        ViewerSnapshot lagging = TestSupport.viewer(0, "Steve", 90, false, "");
+        assertFalse(tracker.isTabDirty(lagging, header, footer, false));
+        assertTrue(tracker.isTabDirty(lagging, header, footer, true));
+    }
+
+    private static List<ViewerSnapshot> viewers() {
+        List<ViewerSnapshot> viewers = new ArrayList<>();
+        for (int i = 0; i < VIEWERS; i++) {
+            viewers.add(TestSupport.viewer(i, "Player" + i, 42, false, ""));
+        }
+        return viewers;
+    }
+}
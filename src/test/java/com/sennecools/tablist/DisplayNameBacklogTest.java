@@ -0,0 +1,59 @@
+package com.sennecools.tablist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A backlogged player gets no display name updates until its channel drains, then exactly one resync.
+ */
+class DisplayNameBacklogTest {
+
+    private static final class FakePlayer {
+        final UUID uuid = UUID.randomUUID();
+        boolean writable = true;
+    }
+
+    @Test
+    void nonWritablePlayerGetsNothingUntilDrained() {
+        DisplayNameBacklog backlog = new DisplayNameBacklog();
+        FakePlayer fast = new FakePlayer();
+        FakePlayer slow = new FakePlayer();
+        slow.writable = false;
+        List<FakePlayer> online = List.of(fast, slow);
+
+        for (int update = 0; update < 3; update++) {
+            assertEquals(List.of(fast), recipients(backlog, online));
+            assertTrue(drained(backlog, online).isEmpty());
+        }
+
+        slow.writable = true;
+        assertEquals(List.of(slow), drained(backlog, online));
+        assertTrue(drained(backlog, online).isEmpty());
+        assertEquals(online, recipients(backlog, online));
+    }
+
+    @Test
+    void forgottenPlayerIsNotResynced() {
+        DisplayNameBacklog backlog = new DisplayNameBacklog();
+        FakePlayer slow = new FakePlayer();
+        slow.writable = false;
+        assertTrue(recipients(backlog, List.of(slow)).isEmpty());
+
+        backlog.forget(slow.uuid);
+        slow.writable = true;
+        assertTrue(drained(backlog, List.of(slow)).isEmpty());
+    }
+
+    private static List<FakePlayer> recipients(DisplayNameBacklog backlog, List<FakePlayer> players) {
+        return backlog.recipients(players, player -> player.uuid, player -> player.writable);
+    }
+
+    private static List<FakePlayer> drained(DisplayNameBacklog backlog, List<FakePlayer> online) {
+        return backlog.drained(online, player -> player.uuid, player -> player.writable);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sennecools.tablist;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression test: a compiled template must render what the old substitute-then-convert code produced.
+ */
+class TabListTemplateTest {
+
+    // Placeholders in the order the old code replaced them
+    private static final List<Placeholder> LEGACY_ORDER = List.of(
+            Placeholder.SERVERNAME, Placeholder.CTPS, Placeholder.MSPT, Placeholder.TPS, Placeholder.PLAYERCOUNT,
+            Placeholder.PING, Placeholder.RANK, Placeholder.MAXPLAYERS, Placeholder.PLAYERNAME, Placeholder.AFK
+    );
+
+    private static final List<String> CORPUS = List.of(
+            "&fOnline: &e#PLAYERCOUNT&7/&e#MAXPLAYERS #N&7TPS: #CTPS &7| Ping: &#55FFFF#PING&7ms",
+            "#N        &#FF5555&l#SERVERNAME        #N&#AAAAAA&m            #N",
+            "&#PING",
+            "&#12#PING",
+            "&#PINGms",
+            "<#PING",
+            "#RANK#PLAYERNAME",
+            "#RANKc after",
+            "#RANK#N&aPing",
+            "<gradient:#FF0000:#0000FF>#PLAYERNAME</gradient> &7#PING",
+            "<#FF0000>#RANK</#00FF00>",
+            "<gradient:#FF0000:#0000FF>#RANK</gradient>c",
+            "<#FF0000><gradient:#112233:#445566></#00FF00>#TPS</gradient>x</#00FF00>",
+            "<gradient:#FF0000:#0000FF>a #SERVERNAME b</gradient> <#FF0000>#PING</#0000FF>"
+    );
+
+    private static final String[] TOKENS = {
+            "a", "Z", "0", "F", "x", " ", "\n", "#", "<", ">", "/", ":", "&", "N", "12", "3456",
+            "&c", "&l", "&r", "&x", "&#", "&#FF0000", "&#12ab", "&x&1&2&3&4&5&6",
+            "<gradient:", "<gradient:#FF0000:#0000FF>", "<gradient:#112233:#445566:#778899>", "</gradient>",
+            "<#FF0000>", "</#00FF00>", "<#", "</#", "00FF00>", "#00FF00", "</"
+    };
+
+    private static final String[] PLACEHOLDERS = {
+            "#PING", "#RANK", "#SERVERNAME", "#PLAYERNAME", "#CTPS", "#TPS", "#MSPT", "#AFK", "#N"
+    };
+
+    @BeforeAll
+    static void bootstrap() {
+        TestSupport.bootstrap();
+    }
+
+    @Test
+    void corpusMatchesLegacyRendering() {
+        String[][] values = {{"Server", "Admin"}, {"&", "c"}, {"&cRed&", "&#12"}, {"<#FF0000>", "</#00FF00>"}};
+        for (String template : CORPUS) {
+            for (String[] value : values) {
+                assertRendersLikeLegacy(template, value[0], value[1], "Steve", 42, true);
+            }
+        }
+    }
+
+    @Test
+    void generatedTemplatesMatchLegacyRendering() {
+        Random random = new Random(20240612L);
+        for (int run = 0; run < 100_000; run++) {
+            String template = generate(random, 16, true);
+            String serverName = generate(random, 3, false);
+            String rank = generate(random, 3, false);
+            assertRendersLikeLegacy(template, serverName, rank, "Player" + random.nextInt(100), random.nextInt(300),
+                    random.nextBoolean());
+        }
+    }
+
+    private static void assertRendersLikeLegacy(String template, String serverName, String rank, String name,
+                                                int ping, boolean afk) {
+        PlaceholderContext context = PlaceholderContext.forConfig(TestSupport.defaultConfig(serverName));
+        ViewerSnapshot viewer = TestSupport.viewer(0, name, ping, afk, rank);
+        String substituted = legacySubstitute(template, context, viewer);
+        if (!substituted.equals(substitute(template, context, viewer))) {
+            // A value that itself reads as a placeholder; out of scope here
+            return;
+        }
+        assertEquals(LegacyColorCodes.convert(substituted), TabListTemplate.compile(template).render(context, viewer),
+                () -> "template: " + template + ", server name: " + serverName + ", rank: " + rank);
+    }
+
+    private static String legacySubstitute(String template, PlaceholderContext context, ViewerSnapshot viewer) {
+        String output = template;
+        for (Placeholder placeholder : LEGACY_ORDER) {
+            output = output.replace(placeholder.token(), TabListVariables.resolvePlaceholder(placeholder, context, viewer));
+        }
+        return output.replace("#N", "\n");
+    }
+
+    private static String substitute(String template, PlaceholderContext context, ViewerSnapshot viewer) {
+        StringBuilder out = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            Placeholder placeholder = Placeholder.match(template, i);
+            if (placeholder != null) {
+                out.append(TabListVariables.resolvePlaceholder(placeholder, context, viewer));
+                i += placeholder.token().length();
+            } else if (template.startsWith("#N", i)) {
+                out.append('\n');
+                i += 2;
+            } else {
+                out.append(template.charAt(i++));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String generate(Random random, int maxTokens, boolean placeholders) {
+        StringBuilder text = new StringBuilder();
+        int tokens = random.nextInt(maxTokens + 1);
+        for (int t = 0; t < tokens; t++) {
+            text.append(placeholders && random.nextInt(3) == 0
+                    ? PLACEHOLDERS[random.nextInt(PLACEHOLDERS.length)]
+                    : TOKENS[random.nextInt(TOKENS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.sennecools.tablist;
+
+import com.sennecools.tablist.config.ConfigSnapshot;
+import com.sennecools.tablist.config.TabListConfig;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+import java.util.UUID;
+
+/**
+ * Shared test setup: a bootstrapped game, configs built from the defaults and synthetic viewers.
+ */
+final class TestSupport {
+
+    private static boolean bootstrapped = false;
+
+    private TestSupport() {
+    }
+
+    static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    static ConfigSnapshot defaultConfig(String serverName) {
+        return new ConfigSnapshot(serverName,
+                TabListConfig.DEFAULT_HEADER.stream().map(TabListTemplate::compile).toList(),
+                TabListConfig.DEFAULT_FOOTER.stream().map(TabListTemplate::compile).toList(),
+                500, 4, "{name} &7#AFK", false, "NONE", true, 300, false, false,
+                TabListConfig.DEFAULT_ADAPTIVE_THRESHOLDS, false);
+    }
+
+    static ViewerSnapshot viewer(int index, String name, int ping, boolean afk, String rank) {
+        return new ViewerSnapshot(null, new UUID(0L, index), name, ping, null, afk,
+                new RankCache.RankInfo(0, rank, null));
+    }
+}